@@ -0,0 +1,71 @@
+-- Schema created by StateQuizDBHelper.onCreate, database version 10.
+-- Checked by StateQuizDBHelperTest and loaded by the benchmark module;
+-- update it together with the CREATE statements in StateQuizDBHelper.
+
+CREATE TABLE states (
+    _id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name TEXT,
+    capital TEXT,
+    city2 TEXT,
+    city3 TEXT
+);
+
+CREATE TABLE quizzes (
+    _id INTEGER PRIMARY KEY AUTOINCREMENT,
+    timestamp INTEGER,
+    score INTEGER,
+    questions_answered INTEGER,
+    last_answer TEXT,
+    question_count INTEGER NOT NULL DEFAULT 6
+);
+
+CREATE TABLE quiz_questions (
+    _id INTEGER PRIMARY KEY AUTOINCREMENT,
+    quiz_id INTEGER,
+    state_id INTEGER,
+    answer_choice INTEGER,
+    FOREIGN KEY(quiz_id) REFERENCES quizzes(_id),
+    FOREIGN KEY(state_id) REFERENCES states(_id)
+);
+
+CREATE TABLE quiz_stats (
+    _id INTEGER PRIMARY KEY CHECK (_id = 1),
+    completed_count INTEGER NOT NULL,
+    total_score INTEGER NOT NULL,
+    total_questions INTEGER NOT NULL,
+    perfect_count INTEGER NOT NULL,
+    current_streak INTEGER NOT NULL,
+    best_streak INTEGER NOT NULL,
+    first_completed_at INTEGER,
+    last_completed_at INTEGER
+);
+
+CREATE TABLE state_stats (
+    state_id INTEGER PRIMARY KEY,
+    asked_count INTEGER NOT NULL,
+    correct_count INTEGER NOT NULL,
+    last_asked_at INTEGER,
+    FOREIGN KEY(state_id) REFERENCES states(_id)
+);
+
+CREATE TABLE quiz_plan (
+    quiz_id INTEGER NOT NULL,
+    position INTEGER NOT NULL,
+    state_id INTEGER NOT NULL,
+    choice_order INTEGER NOT NULL,
+    PRIMARY KEY(quiz_id, position),
+    FOREIGN KEY(quiz_id) REFERENCES quizzes(_id),
+    FOREIGN KEY(state_id) REFERENCES states(_id)
+) WITHOUT ROWID;
+
+CREATE TABLE metadata (
+    key TEXT PRIMARY KEY,
+    value INTEGER NOT NULL
+) WITHOUT ROWID;
+
+CREATE INDEX idx_quiz_questions_quiz_id ON quiz_questions(quiz_id);
+CREATE INDEX idx_quiz_questions_state_id ON quiz_questions(state_id);
+CREATE INDEX idx_quizzes_timestamp ON quizzes(timestamp);
+CREATE INDEX idx_quizzes_questions_answered ON quizzes(questions_answered);
+CREATE INDEX idx_quizzes_in_progress ON quizzes(timestamp) WHERE questions_answered < question_count;
+CREATE INDEX idx_states_name ON states(name);
@@ -0,0 +1,149 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark comparing the QuizData hot writes through ContentValues,
+ * as they were issued before the statement cache, with the compiled statements
+ * QuizData now keeps. Each run replays WRITE_COUNT answers and score updates in
+ * one transaction, as bulk replay does. Timings are logged under the
+ * "QuizDataWriteBenchmark" tag; the test asserts both paths write the same rows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizDataWriteBenchmark {
+    private static final String DEBUG_TAG = "QuizDataWriteBenchmark";
+    private static final int WRITE_COUNT = 20000;
+    private static final int QUIZ_COUNT = 100;
+    private static final int STATE_COUNT = 50;
+    private static final int RUNS = 7;
+
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL(StateQuizDBHelper.CREATE_STATES);
+        db.execSQL(StateQuizDBHelper.CREATE_QUIZZES);
+        db.execSQL(StateQuizDBHelper.CREATE_QUIZ_QUESTIONS);
+        StateQuizDBHelper.createIndexes(db);
+        for (int i = 0; i < QUIZ_COUNT; i++) {
+            db.execSQL("INSERT INTO " + StateQuizDBHelper.TABLE_QUIZZES
+                    + " (timestamp, score, questions_answered) VALUES (?, 0, 0)", new Object[]{i});
+        }
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void hotWrites_contentValuesVersusCompiledStatements() {
+        long[] contentValues = new long[RUNS];
+        long[] compiled = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            clearQuestions();
+            contentValues[run] = timeContentValuesWrites();
+            long contentValuesRows = countQuestions();
+
+            clearQuestions();
+            compiled[run] = timeCompiledWrites();
+            assertEquals(contentValuesRows, countQuestions());
+        }
+        Arrays.sort(contentValues);
+        Arrays.sort(compiled);
+
+        long before = contentValues[RUNS / 2];
+        long after = compiled[RUNS / 2];
+        Log.i(DEBUG_TAG, "ContentValues: " + before / WRITE_COUNT + " ns per write, compiled statements: "
+                + after / WRITE_COUNT + " ns per write (median of " + RUNS + ", "
+                + WRITE_COUNT + " answers and score updates)");
+        assertEquals(WRITE_COUNT, countQuestions());
+    }
+
+    /**
+     * Stores answers and updates scores the way QuizData did before the statement
+     * cache, returning the elapsed nanoseconds
+     */
+    private long timeContentValuesWrites() {
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < WRITE_COUNT; i++) {
+                long quizId = 1 + i % QUIZ_COUNT;
+
+                ContentValues question = new ContentValues();
+                question.put(StateQuizDBHelper.QUESTION_COLUMN_QUIZ_ID, quizId);
+                question.put(StateQuizDBHelper.QUESTION_COLUMN_STATE_ID, 1 + i % STATE_COUNT);
+                question.put(StateQuizDBHelper.QUESTION_COLUMN_ANSWER_CHOICE, i % State.CHOICE_COUNT);
+                db.insert(StateQuizDBHelper.TABLE_QUIZ_QUESTIONS, null, question);
+
+                ContentValues score = new ContentValues();
+                score.put(StateQuizDBHelper.QUIZ_COLUMN_SCORE, i % 7);
+                score.put(StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED, i % 6);
+                String[] whereArgs = {String.valueOf(quizId)};
+                db.update(StateQuizDBHelper.TABLE_QUIZZES, score,
+                        StateQuizDBHelper.QUIZ_COLUMN_ID + "=?", whereArgs);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Stores the same answers and scores through the statements QuizData compiles,
+     * returning the elapsed nanoseconds
+     */
+    private long timeCompiledWrites() {
+        SQLiteStatement insertQuestion = db.compileStatement(QuizData.INSERT_QUESTION_SQL);
+        SQLiteStatement updateScore = db.compileStatement(QuizData.UPDATE_SCORE_SQL);
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < WRITE_COUNT; i++) {
+                long quizId = 1 + i % QUIZ_COUNT;
+
+                insertQuestion.bindLong(1, quizId);
+                insertQuestion.bindLong(2, 1 + i % STATE_COUNT);
+                insertQuestion.bindLong(3, i % State.CHOICE_COUNT);
+                insertQuestion.executeInsert();
+
+                updateScore.bindLong(1, i % 7);
+                updateScore.bindLong(2, i % 6);
+                updateScore.bindLong(3, quizId);
+                updateScore.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insertQuestion.close();
+            updateScore.close();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void clearQuestions() {
+        db.execSQL("DELETE FROM " + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS);
+    }
+
+    private long countQuestions() {
+        return DatabaseUtils.queryNumEntries(db, StateQuizDBHelper.TABLE_QUIZ_QUESTIONS);
+    }
+}
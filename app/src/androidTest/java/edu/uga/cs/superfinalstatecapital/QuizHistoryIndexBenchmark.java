@@ -0,0 +1,170 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented benchmark comparing the quiz history queries on 100k stored quizzes
+ * before and after the version 3 indexes. Timings are logged under the
+ * "QuizHistoryIndexBenchmark" tag; the test asserts that the indexes are used.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizHistoryIndexBenchmark {
+    private static final String DEBUG_TAG = "QuizHistoryIndexBenchmark";
+    private static final int QUIZ_COUNT = 100000;
+    private static final int QUESTIONS_PER_QUIZ = 6;
+    private static final int STATE_COUNT = 50;
+    private static final int RUNS = 7;
+    private static final long START_MILLIS = 946684800000L; // 2000-01-01
+
+    // Same queries QuizData issues
+    private static final String HISTORY_QUERY = "SELECT * FROM " + StateQuizDBHelper.TABLE_QUIZZES
+            + " ORDER BY " + StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + " DESC";
+    private static final String IN_PROGRESS_QUERY = "SELECT * FROM " + StateQuizDBHelper.TABLE_QUIZZES
+            + " WHERE " + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " > 0 AND "
+            + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " < "
+            + StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT
+            + " AND " + StateQuizDBHelper.QUIZ_COLUMN_SCORE + " >= 0"
+            + " ORDER BY " + StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + " DESC LIMIT 1";
+    private static final String QUIZ_STATES_QUERY = "SELECT DISTINCT s.* FROM "
+            + StateQuizDBHelper.TABLE_STATES + " s JOIN " + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS + " q"
+            + " ON s." + StateQuizDBHelper.STATES_COLUMN_ID + " = q." + StateQuizDBHelper.QUESTION_COLUMN_STATE_ID
+            + " WHERE q." + StateQuizDBHelper.QUESTION_COLUMN_QUIZ_ID + " = ?"
+            + " ORDER BY q." + StateQuizDBHelper.QUESTION_COLUMN_ID;
+
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL(StateQuizDBHelper.CREATE_STATES);
+        db.execSQL(StateQuizDBHelper.CREATE_QUIZZES);
+        db.execSQL(StateQuizDBHelper.CREATE_QUIZ_QUESTIONS);
+        populate();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    /**
+     * Fills the database with states, quizzes and their answered questions
+     */
+    private void populate() {
+        db.beginTransaction();
+        try {
+            SQLiteStatement state = db.compileStatement("INSERT INTO " + StateQuizDBHelper.TABLE_STATES
+                    + " (name, capital, city2, city3) VALUES (?, ?, ?, ?)");
+            for (int i = 0; i < STATE_COUNT; i++) {
+                state.bindString(1, "State " + i);
+                state.bindString(2, "Capital " + i);
+                state.bindString(3, "City " + i);
+                state.bindString(4, "Town " + i);
+                state.executeInsert();
+            }
+
+            SQLiteStatement quiz = db.compileStatement("INSERT INTO " + StateQuizDBHelper.TABLE_QUIZZES
+                    + " (timestamp, score, questions_answered) VALUES (?, ?, ?)");
+            SQLiteStatement question = db.compileStatement("INSERT INTO " + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS
+                    + " (quiz_id, state_id, answer_choice) VALUES (?, ?, ?)");
+            for (int i = 0; i < QUIZ_COUNT; i++) {
+                // One quiz every ten minutes, with the odd interrupted one
+                quiz.bindLong(1, START_MILLIS + i * 600000L);
+                quiz.bindLong(2, i % (QUESTIONS_PER_QUIZ + 1));
+                quiz.bindLong(3, i % 1000 == 0 ? 3 : QUESTIONS_PER_QUIZ);
+                long quizId = quiz.executeInsert();
+
+                for (int q = 0; q < QUESTIONS_PER_QUIZ; q++) {
+                    question.bindLong(1, quizId);
+                    question.bindLong(2, 1 + (i + q * 7) % STATE_COUNT);
+                    question.bindLong(3, q % State.CHOICE_COUNT);
+                    question.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Test
+    public void historyQueries_beforeAndAfterIndexes() {
+        long[] before = timeQueries();
+        StateQuizDBHelper.createIndexes(db);
+        db.execSQL("ANALYZE");
+        long[] after = timeQueries();
+
+        String[] names = {"getPastQuizResults", "getQuizInProgress", "getQuizStates"};
+        for (int i = 0; i < names.length; i++) {
+            Log.i(DEBUG_TAG, names[i] + ": " + before[i] / 1000 + " us without indexes, "
+                    + after[i] / 1000 + " us with indexes (median of " + RUNS + ", "
+                    + QUIZ_COUNT + " quizzes)");
+        }
+
+        assertTrue(queryPlan(HISTORY_QUERY, null).contains(StateQuizDBHelper.INDEX_QUIZZES_TIMESTAMP));
+        assertTrue(queryPlan(IN_PROGRESS_QUERY, null).contains(StateQuizDBHelper.INDEX_QUIZZES_IN_PROGRESS));
+        assertTrue(queryPlan(QUIZ_STATES_QUERY, new String[]{"5000"})
+                .contains(StateQuizDBHelper.INDEX_QUESTIONS_QUIZ_ID));
+    }
+
+    /**
+     * Returns the median time in nanoseconds of each benchmarked query
+     */
+    private long[] timeQueries() {
+        long[][] samples = new long[3][RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            samples[0][run] = timeQuery(HISTORY_QUERY, null);
+            samples[1][run] = timeQuery(IN_PROGRESS_QUERY, null);
+            samples[2][run] = timeQuery(QUIZ_STATES_QUERY,
+                    new String[]{String.valueOf(1 + (run * 9973) % QUIZ_COUNT)});
+        }
+        long[] medians = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            Arrays.sort(samples[i]);
+            medians[i] = samples[i][RUNS / 2];
+        }
+        return medians;
+    }
+
+    /**
+     * Runs a query and reads every row, returning the elapsed nanoseconds
+     */
+    private long timeQuery(String sql, String[] args) {
+        long start = System.nanoTime();
+        try (Cursor cursor = db.rawQuery(sql, args)) {
+            while (cursor.moveToNext()) {
+                cursor.getLong(0);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the EXPLAIN QUERY PLAN details for a query
+     */
+    private String queryPlan(String sql, String[] args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detailIndex = cursor.getColumnIndex("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detailIndex)).append('\n');
+            }
+        }
+        Log.i(DEBUG_TAG, sql + "\n" + plan);
+        return plan.toString();
+    }
+}
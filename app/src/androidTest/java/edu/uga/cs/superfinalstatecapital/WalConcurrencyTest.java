@@ -0,0 +1,154 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test showing that, with the connection settings applied by
+ * StateQuizDBHelper, a read on another thread completes while a write
+ * transaction is open, and sees the last committed data.
+ * The rollback journal case shows the same read blocking until the commit.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WalConcurrencyTest {
+    private static final long READ_TIMEOUT_MS = 2000;
+    private static final long BLOCKED_READ_MS = 500;
+
+    private static final String COUNT_QUIZZES = "SELECT COUNT(*) FROM " + StateQuizDBHelper.TABLE_QUIZZES;
+
+    private File dbFile;
+    private SQLiteDatabase db;
+    private ExecutorService writer;
+    private ExecutorService reader;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        dbFile = context.getDatabasePath("wal_concurrency_test.db");
+        SQLiteDatabase.deleteDatabase(dbFile);
+        dbFile.getParentFile().mkdirs();
+
+        db = SQLiteDatabase.openOrCreateDatabase(dbFile, null);
+        StateQuizDBHelper.configureConnection(db);
+        db.execSQL(StateQuizDBHelper.CREATE_STATES);
+        db.execSQL(StateQuizDBHelper.CREATE_QUIZZES);
+        db.execSQL(StateQuizDBHelper.CREATE_QUIZ_QUESTIONS);
+        insertQuiz();
+
+        writer = Executors.newSingleThreadExecutor();
+        reader = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        writer.shutdownNow();
+        reader.shutdownNow();
+        db.close();
+        SQLiteDatabase.deleteDatabase(dbFile);
+    }
+
+    @Test
+    public void writeAheadLogging_isEnabledWithTunedPragmas() {
+        assertTrue(db.isWriteAheadLoggingEnabled());
+        // Read the pragmas on the primary connection, which a transaction pins
+        db.beginTransaction();
+        try {
+            assertEquals("wal", DatabaseUtils.stringForQuery(db, "PRAGMA journal_mode", null));
+            assertEquals(1, DatabaseUtils.longForQuery(db, "PRAGMA synchronous", null)); // NORMAL
+            assertEquals(2, DatabaseUtils.longForQuery(db, "PRAGMA temp_store", null));  // MEMORY
+            assertEquals(1, DatabaseUtils.longForQuery(db, "PRAGMA foreign_keys", null));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Test
+    public void readCompletesWhileWriteTransactionIsOpen() throws Exception {
+        CountDownLatch writeOpen = new CountDownLatch(1);
+        CountDownLatch readDone = new CountDownLatch(1);
+
+        Future<?> write = writer.submit(() -> {
+            db.beginTransactionNonExclusive();
+            try {
+                insertQuiz();
+                writeOpen.countDown();
+                // Hold the transaction open until the reader has finished
+                assertTrue(readDone.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            return null;
+        });
+
+        assertTrue(writeOpen.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        Future<Long> read = reader.submit(() -> DatabaseUtils.longForQuery(db, COUNT_QUIZZES, null));
+
+        // The read sees the committed row only, without waiting for the writer
+        assertEquals(1L, read.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS).longValue());
+        readDone.countDown();
+        write.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, DatabaseUtils.longForQuery(db, COUNT_QUIZZES, null));
+    }
+
+    @Test
+    public void rollbackJournal_readWaitsForWriteTransaction() throws Exception {
+        db.disableWriteAheadLogging();
+        CountDownLatch writeOpen = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> write = writer.submit(() -> {
+            db.beginTransaction();
+            try {
+                insertQuiz();
+                writeOpen.countDown();
+                release.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            return null;
+        });
+
+        assertTrue(writeOpen.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        Future<Long> read = reader.submit(() -> DatabaseUtils.longForQuery(db, COUNT_QUIZZES, null));
+        try {
+            read.get(BLOCKED_READ_MS, TimeUnit.MILLISECONDS);
+            fail("Read completed while the write transaction held the only connection");
+        } catch (TimeoutException expected) {
+            // Blocked behind the writer, as the results screen was before WAL
+        }
+
+        release.countDown();
+        write.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(2L, read.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS).longValue());
+    }
+
+    private void insertQuiz() {
+        db.execSQL("INSERT INTO " + StateQuizDBHelper.TABLE_QUIZZES + " ("
+                + StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + ", "
+                + StateQuizDBHelper.QUIZ_COLUMN_SCORE + ", "
+                + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + ") VALUES (?, 0, 0)",
+                new Object[]{System.currentTimeMillis()});
+    }
+}
@@ -0,0 +1,226 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Process-wide question selection for adaptive quizzes.
+ * Each state is weighted by its smoothed error rate from state_stats, and
+ * states asked within the last COOLDOWN_MILLIS are weighted down so the
+ * same weak states do not fill every quiz.
+ *
+ * The weights are loaded once from the per-state rollup (one row per state,
+ * never the answer history) and then kept current by recordAnswer(), which
+ * QuizData calls for each answer once it is committed and which changes a
+ * single weight in O(log n). Draws go through a WeightedQuestionSampler and
+ * cost O(log n) per question.
+ */
+public final class AdaptiveSampler {
+    private static final String DEBUG_TAG = "AdaptiveSampler";
+
+    // States asked this recently are drawn less often, by COOLDOWN_FACTOR
+    static final long COOLDOWN_MILLIS = 30 * 60 * 1000L;
+    static final double COOLDOWN_FACTOR = 0.25;
+
+    // Cached sampler, guarded by the class
+    private static AdaptiveSampler instance;
+
+    private final StateCatalog catalog;
+    private final Map<Long, Integer> indexById;
+    private final int[] askedCounts;
+    private final int[] correctCounts;
+    private final long[] lastAskedAt;
+    private final WeightedQuestionSampler sampler;
+
+    // (index, askedAt) of answers whose cooldown has not been released, oldest first.
+    // Entries superseded by a later answer are dropped once they outnumber the
+    // states, so the queue holds at most about two entries per state.
+    private final ArrayDeque<long[]> cooling = new ArrayDeque<>();
+
+    AdaptiveSampler(StateCatalog catalog, List<StateAccuracy> stats, long now, Random random) {
+        this.catalog = catalog;
+        long[] stateIds = catalog.getStateIds();
+        indexById = new HashMap<>(stateIds.length * 2);
+        for (int i = 0; i < stateIds.length; i++) {
+            indexById.put(stateIds[i], i);
+        }
+        askedCounts = new int[stateIds.length];
+        correctCounts = new int[stateIds.length];
+        lastAskedAt = new long[stateIds.length];
+
+        List<StateAccuracy> recent = new ArrayList<>();
+        for (StateAccuracy accuracy : stats) {
+            Integer index = indexById.get(accuracy.getStateId());
+            if (index == null) {
+                continue;
+            }
+            askedCounts[index] = accuracy.getAskedCount();
+            correctCounts[index] = accuracy.getCorrectCount();
+            lastAskedAt[index] = accuracy.getLastAskedAt();
+            if (isCooling(lastAskedAt[index], now)) {
+                recent.add(accuracy);
+            }
+        }
+        Collections.sort(recent, (a, b) -> Long.compare(a.getLastAskedAt(), b.getLastAskedAt()));
+        for (StateAccuracy accuracy : recent) {
+            cooling.addLast(new long[]{indexById.get(accuracy.getStateId()), accuracy.getLastAskedAt()});
+        }
+
+        double[] weights = new double[stateIds.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weightOf(askedCounts[i], correctCounts[i], isCooling(lastAskedAt[i], now));
+        }
+        sampler = new WeightedQuestionSampler(stateIds, weights, random);
+    }
+
+    /**
+     * Returns the cached sampler, building it from the catalog and state_stats
+     * on first use or after the catalog was reloaded.
+     * Must be called off the UI thread.
+     *
+     * @param quizData open database access used to load the weights
+     * @return the adaptive sampler
+     */
+    public static AdaptiveSampler get(QuizData quizData) {
+        StateCatalog catalog = StateCatalog.get(quizData);
+        synchronized (AdaptiveSampler.class) {
+            if (instance != null && instance.catalog == catalog) {
+                return instance;
+            }
+        }
+        AdaptiveSampler adaptiveSampler = new AdaptiveSampler(catalog, quizData.getStateStats(),
+                System.currentTimeMillis(), new Random());
+        synchronized (AdaptiveSampler.class) {
+            instance = adaptiveSampler;
+        }
+        Log.d(DEBUG_TAG, "Built adaptive sampler over " + catalog.size() + " states");
+        return adaptiveSampler;
+    }
+
+    /**
+     * Updates the cached sampler, if one has been built, with a new answer
+     *
+     * @param stateId ID of the state asked about
+     * @param correct whether the answer was right
+     * @param now     time of the answer, in epoch milliseconds
+     */
+    public static void recordAnswerIfLoaded(long stateId, boolean correct, long now) {
+        AdaptiveSampler adaptiveSampler;
+        synchronized (AdaptiveSampler.class) {
+            adaptiveSampler = instance;
+        }
+        if (adaptiveSampler != null) {
+            adaptiveSampler.recordAnswer(stateId, correct, now);
+        }
+    }
+
+    /**
+     * Returns the catalog the sampler was built over
+     *
+     * @return the state catalog
+     */
+    public StateCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Adds an answer to the state's counts and starts its cooldown, in O(log n)
+     *
+     * @param stateId ID of the state asked about
+     * @param correct whether the answer was right
+     * @param now     time of the answer, in epoch milliseconds
+     */
+    public synchronized void recordAnswer(long stateId, boolean correct, long now) {
+        Integer index = indexById.get(stateId);
+        if (index == null) {
+            return;
+        }
+        askedCounts[index]++;
+        if (correct) {
+            correctCounts[index]++;
+        }
+        lastAskedAt[index] = now;
+        releaseCooledDown(now);
+        cooling.addLast(new long[]{index, now});
+        if (cooling.size() > 2 * lastAskedAt.length) {
+            dropSuperseded();
+        }
+        sampler.setWeight(index, weightOf(askedCounts[index], correctCounts[index], true));
+    }
+
+    /**
+     * Draws distinct state IDs, weakest and least recently asked states first in expectation
+     *
+     * @param count number of states wanted
+     * @param now   current time, in epoch milliseconds
+     * @return array of min(count, number of states) distinct state IDs
+     */
+    public synchronized long[] sample(int count, long now) {
+        releaseCooledDown(now);
+        return sampler.sample(count);
+    }
+
+    /**
+     * Restores the full weight of states whose cooldown has passed.
+     * Each answer is released once, so this is amortized O(log n) per answer.
+     */
+    private void releaseCooledDown(long now) {
+        while (!cooling.isEmpty() && !isCooling(cooling.peekFirst()[1], now)) {
+            long[] entry = cooling.removeFirst();
+            int index = (int) entry[0];
+            // A later answer to the same state has its own entry
+            if (lastAskedAt[index] == entry[1]) {
+                sampler.setWeight(index, weightOf(askedCounts[index], correctCounts[index], false));
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of states asked again since, leaving at most one per state
+     */
+    private void dropSuperseded() {
+        Iterator<long[]> iterator = cooling.iterator();
+        while (iterator.hasNext()) {
+            long[] entry = iterator.next();
+            if (lastAskedAt[(int) entry[0]] != entry[1]) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the current draw weight of a state, for tests
+     */
+    synchronized double getWeight(long stateId) {
+        Integer index = indexById.get(stateId);
+        return index == null ? 0 : sampler.getWeight(index);
+    }
+
+    /**
+     * Returns the number of queued cooldown entries, for tests
+     */
+    synchronized int getCoolingCount() {
+        return cooling.size();
+    }
+
+    private static boolean isCooling(long askedAt, long now) {
+        return askedAt > 0 && now - askedAt < COOLDOWN_MILLIS;
+    }
+
+    /**
+     * Returns the draw weight of a state: its error rate smoothed towards 1/2,
+     * so unasked states get an even chance, reduced while it is cooling down
+     */
+    static double weightOf(int askedCount, int correctCount, boolean cooling) {
+        double errorRate = (askedCount - correctCount + 1.0) / (askedCount + 2.0);
+        return cooling ? errorRate * COOLDOWN_FACTOR : errorRate;
+    }
+}
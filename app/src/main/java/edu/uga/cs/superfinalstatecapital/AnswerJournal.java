@@ -0,0 +1,199 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import java.util.ArrayList;
+
+/**
+ * Write-behind journal for quiz answers. Answers are kept in memory and
+ * written in batches, each batch as a single transaction on the write lane
+ * that also stores the quiz's score and progress.
+ *
+ * A batch is flushed after FLUSH_THRESHOLD answers, and by the owner when the
+ * quiz completes or the screen pauses. Answers stay in the journal until their
+ * write is confirmed, and are saved to the instance state, so a flush lost to
+ * process death is replayed after restore. Replays are idempotent because
+ * answers are numbered by question index.
+ * Used from the UI thread only.
+ */
+public class AnswerJournal {
+    private static final String DEBUG_TAG = "AnswerJournal";
+
+    // Answers collected before a flush is started automatically
+    public static final int FLUSH_THRESHOLD = 3;
+
+    // Keys for saving instance state
+    private static final String KEY_QUIZ_ID = "journalQuizId";
+    private static final String KEY_FIRST_INDEX = "journalFirstIndex";
+    private static final String KEY_STATE_IDS = "journalStateIds";
+    private static final String KEY_ANSWER_CHOICES = "journalAnswerChoices";
+    private static final String KEY_SCORE = "journalScore";
+
+    private final QuizRepository quizRepository;
+    private final int flushThreshold;
+
+    // Quiz being journaled, or -1
+    private long quizId = -1;
+
+    // Question index of the first unconfirmed answer
+    private int firstIndex;
+
+    // Unconfirmed answers, in question order
+    private final ArrayList<Long> stateIds = new ArrayList<>();
+    private final ArrayList<Integer> answerChoices = new ArrayList<>();
+
+    // Score after the latest answer
+    private int score;
+
+    // Answers recorded since the last flush was started
+    private int unflushedCount;
+
+    /**
+     * Creates a journal that flushes every FLUSH_THRESHOLD answers
+     */
+    public AnswerJournal(QuizRepository quizRepository) {
+        this(quizRepository, FLUSH_THRESHOLD);
+    }
+
+    /**
+     * Creates a journal that flushes every flushThreshold answers
+     */
+    public AnswerJournal(QuizRepository quizRepository, int flushThreshold) {
+        this.quizRepository = quizRepository;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Starts journaling a quiz, discarding anything kept for another quiz
+     * @param quizId ID of the quiz
+     * @param answeredCount Number of questions already stored for it
+     * @param score Score already stored for it
+     */
+    public void begin(long quizId, int answeredCount, int score) {
+        if (quizId == this.quizId && answeredCount <= firstIndex + answerChoices.size()) {
+            return;
+        }
+        this.quizId = quizId;
+        this.firstIndex = answeredCount;
+        this.score = score;
+        stateIds.clear();
+        answerChoices.clear();
+        unflushedCount = 0;
+    }
+
+    /**
+     * Records the answer to the next question, flushing when the threshold is reached
+     * @param stateId ID of the state asked about
+     * @param answerChoice Choice code of the selected city, see State.CHOICE_CAPITAL
+     * @param scoreAfter Score including this answer
+     */
+    public void record(long stateId, int answerChoice, int scoreAfter) {
+        stateIds.add(stateId);
+        answerChoices.add(answerChoice);
+        score = scoreAfter;
+        if (++unflushedCount >= flushThreshold) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes every unconfirmed answer in one background transaction.
+     * Confirmed answers are dropped from the journal when the write commits.
+     */
+    public void flush() {
+        if (quizId < 0 || answerChoices.isEmpty()) {
+            return;
+        }
+        final long flushQuizId = quizId;
+        long[] batchStateIds = new long[stateIds.size()];
+        for (int i = 0; i < batchStateIds.length; i++) {
+            batchStateIds[i] = stateIds.get(i);
+        }
+        int[] batchAnswerChoices = toIntArray(answerChoices);
+        unflushedCount = 0;
+
+        quizRepository.storeAnswers(quizId, firstIndex, batchStateIds, batchAnswerChoices, score,
+                storedCount -> confirm(flushQuizId, storedCount));
+    }
+
+    /**
+     * Returns the number of answers not yet confirmed as written
+     */
+    public int getPendingCount() {
+        return answerChoices.size();
+    }
+
+    /**
+     * Drops answers below the stored count once a flush has committed
+     */
+    private void confirm(long flushQuizId, int storedCount) {
+        if (storedCount < 0) {
+            Log.e(DEBUG_TAG, "Flush failed; keeping " + answerChoices.size() + " answers for quiz " + flushQuizId);
+            return;
+        }
+        if (flushQuizId != quizId) {
+            return;
+        }
+        int confirmed = Math.min(storedCount - firstIndex, answerChoices.size());
+        if (confirmed > 0) {
+            stateIds.subList(0, confirmed).clear();
+            answerChoices.subList(0, confirmed).clear();
+            firstIndex += confirmed;
+        }
+    }
+
+    /**
+     * Saves unconfirmed answers so they survive process death
+     */
+    public void saveState(Bundle outState) {
+        if (quizId < 0 || answerChoices.isEmpty()) {
+            return;
+        }
+        long[] savedStateIds = new long[stateIds.size()];
+        for (int i = 0; i < savedStateIds.length; i++) {
+            savedStateIds[i] = stateIds.get(i);
+        }
+        outState.putLong(KEY_QUIZ_ID, quizId);
+        outState.putInt(KEY_FIRST_INDEX, firstIndex);
+        outState.putLongArray(KEY_STATE_IDS, savedStateIds);
+        outState.putIntArray(KEY_ANSWER_CHOICES, toIntArray(answerChoices));
+        outState.putInt(KEY_SCORE, score);
+    }
+
+    /**
+     * Unboxes a list of choice codes
+     */
+    private static int[] toIntArray(ArrayList<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Restores answers saved by saveState() and replays them
+     */
+    public void restoreState(Bundle savedInstanceState) {
+        long[] savedStateIds = savedInstanceState.getLongArray(KEY_STATE_IDS);
+        int[] savedAnswerChoices = savedInstanceState.getIntArray(KEY_ANSWER_CHOICES);
+        if (savedStateIds == null || savedAnswerChoices == null
+                || savedStateIds.length != savedAnswerChoices.length) {
+            return;
+        }
+        quizId = savedInstanceState.getLong(KEY_QUIZ_ID, -1);
+        firstIndex = savedInstanceState.getInt(KEY_FIRST_INDEX, 0);
+        score = savedInstanceState.getInt(KEY_SCORE, 0);
+        stateIds.clear();
+        answerChoices.clear();
+        for (long stateId : savedStateIds) {
+            stateIds.add(stateId);
+        }
+        for (int answerChoice : savedAnswerChoices) {
+            answerChoices.add(answerChoice);
+        }
+        Log.d(DEBUG_TAG, "Restored " + answerChoices.size() + " unconfirmed answers for quiz " + quizId);
+        flush();
+    }
+}
@@ -1,25 +1,121 @@
 package edu.uga.cs.superfinalstatecapital;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
 
 /**
  * AsyncTask handles background operations and updates UI thread when complete.
  * Used for database operations and other long-running tasks.
+ *
+ * All tasks share two process-wide executors: a small pool for reads and a
+ * single thread for writes, so writes are applied in submission order. Idle
+ * threads time out instead of being leaked, and results are delivered through
+ * one cached main-thread handler.
  */
 public abstract class AsyncTask<Param,Result> {
 
+    /**
+     * Executor lane a task runs on
+     */
+    public enum Lane {
+        READ,   // Concurrent, bounded pool for queries
+        WRITE   // Single serialized thread for inserts/updates
+    }
+
+    // No more readers than the connections Android pools for a write-ahead logged database
+    private static final int READ_POOL_SIZE =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ExecutorService READ_EXECUTOR =
+            newLaneExecutor(READ_POOL_SIZE, "AsyncTask-read");
+    private static final ExecutorService WRITE_EXECUTOR =
+            newLaneExecutor(1, "AsyncTask-write");
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final Lane lane;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    // Lifecycle the task is bound to, if any (touched on main thread only)
+    private Lifecycle boundLifecycle;
+    private LifecycleEventObserver lifecycleObserver;
+
+    /**
+     * Creates a task that runs on the read lane
+     */
+    public AsyncTask() {
+        this(Lane.READ);
+    }
+
+    /**
+     * Creates a task that runs on the given lane
+     */
+    public AsyncTask(Lane lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * Returns the shared executor backing a lane
+     */
+    public static ExecutorService getExecutor(Lane lane) {
+        return lane == Lane.WRITE ? WRITE_EXECUTOR : READ_EXECUTOR;
+    }
+
+    /**
+     * Ties the task to a lifecycle: it is cancelled when the owner is destroyed.
+     * Fragments should pass getViewLifecycleOwner() so results never reach a dead view.
+     * Must be called on the main thread before execute().
+     */
+    public AsyncTask<Param,Result> bindTo(LifecycleOwner owner) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            cancel();
+            return this;
+        }
+        lifecycleObserver = new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    cancel();
+                    unbind();
+                }
+            }
+        };
+        boundLifecycle = lifecycle;
+        lifecycle.addObserver(lifecycleObserver);
+        return this;
+    }
+
     /**
      * Executes task in background thread and delivers result to UI thread
      */
     private void executeInBackground(Param... params) {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        executor.execute(() -> {
+        getExecutor(lane).execute(() -> {
+            // Queued reads are dropped once cancelled; writes always run so no data is lost
+            if (cancelled.get() && lane == Lane.READ) {
+                MAIN_HANDLER.post(this::unbind);
+                return;
+            }
             Result result = doInBackground(params);
-            Handler handler = new Handler(Looper.getMainLooper());
-            handler.post(() -> onPostExecute(result));
+            MAIN_HANDLER.post(() -> {
+                unbind();
+                if (!cancelled.get()) {
+                    onPostExecute(result);
+                }
+            });
         });
     }
 
@@ -30,6 +126,62 @@ public abstract class AsyncTask<Param,Result> {
         executeInBackground(arguments);
     }
 
+    /**
+     * Cancels the task. A queued read is skipped; in every case onPostExecute is not called.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Checks whether the task has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Removes the lifecycle observer, if any
+     */
+    private void unbind() {
+        if (boundLifecycle != null) {
+            boundLifecycle.removeObserver(lifecycleObserver);
+            boundLifecycle = null;
+            lifecycleObserver = null;
+        }
+    }
+
+    /**
+     * Builds a bounded executor whose idle threads time out
+     */
+    private static ExecutorService newLaneExecutor(int threads, String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new LaneThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Names lane threads and runs them at background priority
+     */
+    private static class LaneThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        LaneThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, name + "-" + count.getAndIncrement());
+        }
+    }
+
     /**
      * Override this method to perform computation in background thread
      */
@@ -39,4 +191,4 @@ public abstract class AsyncTask<Param,Result> {
      * Override this method to handle results in UI thread
      */
     protected abstract void onPostExecute(Result result);
-}
\ No newline at end of file
+}
@@ -2,48 +2,76 @@ package edu.uga.cs.superfinalstatecapital;
 
 import android.content.Context;
 import android.util.Log;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Reads and processes state data from a CSV file in the assets folder
  */
 public class CSVReader {
     private static final String DEBUG_TAG = "CSVReader";
+    private static final String STATES_ASSET = "state_capitals.csv";
+
+    // Columns used from each row: state name, capital, second city, third city
+    private static final int STATE_COLUMNS = 4;
 
     /**
      * Reads state data from CSV file and stores it in database
+     * in a single bulk import transaction.
      * Format: state name, capital, second city, third city
+     * @return true if the states were imported, false if the import was rolled back
      */
-    public static void readStateData(Context context, QuizData quizData) {
-        try {
-            // Open and read the CSV file from assets
-            InputStream in = context.getAssets().open("state_capitals.csv");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-
-            // Skip the header line
-            String line = reader.readLine();
-
-            // Process each line of state data
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-                if (fields.length >= 4) {
-                    State state = new State(
-                            fields[0].trim(), // state name
-                            fields[1].trim(), // capital
-                            fields[2].trim(), // second city
-                            fields[3].trim()  // third city
-                    );
-                    quizData.storeState(state);
-                }
-            }
-            reader.close();
+    public static boolean readStateData(Context context, QuizData quizData) {
+        boolean loaded = false;
+        QuizData.StateImport stateImport = quizData.beginStateImport();
+        try (Reader reader = new InputStreamReader(
+                context.getAssets().open(STATES_ASSET), StandardCharsets.UTF_8)) {
+            readStateData(reader, stateImport);
+            stateImport.setSuccessful();
+            loaded = true;
             Log.d(DEBUG_TAG, "Successfully loaded states data from CSV");
         }
         catch (IOException e) {
             Log.e(DEBUG_TAG, "Error reading CSV file: " + e.getMessage());
         }
+        catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error storing states from CSV: " + e.getMessage());
+        }
+        finally {
+            stateImport.finish();
+        }
+        return loaded;
+    }
+
+    /**
+     * Streams state rows from CSV text into an open import.
+     * The header row is skipped and only the first four columns are materialized.
+     */
+    static void readStateData(Reader reader, QuizData.StateImport stateImport) throws IOException {
+        final String[] fields = new String[STATE_COLUMNS];
+
+        new CSVTokenizer().tokenize(reader, new CSVTokenizer.FieldHandler() {
+            @Override
+            public void onField(int row, int column, CharSequence value) {
+                // Skip the header line and unused columns
+                if (row > 0 && column < STATE_COLUMNS) {
+                    fields[column] = value.toString().trim();
+                }
+            }
+
+            @Override
+            public void onRecordEnd(int row, int columnCount) {
+                if (row > 0 && columnCount >= STATE_COLUMNS) {
+                    stateImport.insert(
+                            fields[0], // state name
+                            fields[1], // capital
+                            fields[2], // second city
+                            fields[3]  // third city
+                    );
+                }
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,173 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming CSV tokenizer following RFC 4180.
+ * Reads characters into a reusable buffer and reports each field by row and
+ * column index, without splitting lines or allocating a String per field.
+ * Quoted fields may contain commas, line breaks and doubled quotes ("").
+ */
+public class CSVTokenizer {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    // Parser states
+    private static final int FIELD_START = 0;      // At the beginning of a field
+    private static final int UNQUOTED = 1;         // Inside an unquoted field
+    private static final int QUOTED = 2;           // Inside a quoted field
+    private static final int QUOTE_IN_QUOTED = 3;  // Just read a quote inside a quoted field
+
+    /**
+     * Receives fields and record boundaries as they are parsed
+     */
+    public interface FieldHandler {
+        /**
+         * Called for each field. The value is a reused buffer that is only
+         * valid during the call; call toString() to keep it.
+         *
+         * @param row    zero-based record index (the header is row 0)
+         * @param column zero-based column index
+         * @param value  field contents with quoting removed
+         */
+        void onField(int row, int column, CharSequence value);
+
+        /**
+         * Called after the last field of each record
+         *
+         * @param row         zero-based record index
+         * @param columnCount number of fields in the record
+         */
+        void onRecordEnd(int row, int columnCount);
+    }
+
+    private final char[] buffer;
+    private final StringBuilder field = new StringBuilder(64);
+
+    // Per-parse state
+    private FieldHandler handler;
+    private int row;
+    private int column;
+    private boolean recordStarted;
+
+    /**
+     * Creates a tokenizer with the default buffer size
+     */
+    public CSVTokenizer() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a tokenizer with the given buffer size
+     *
+     * @param bufferSize number of characters read from the source at a time
+     */
+    public CSVTokenizer(int bufferSize) {
+        buffer = new char[bufferSize];
+    }
+
+    /**
+     * Parses the whole reader, reporting fields to the handler.
+     * Blank lines are skipped and a leading byte order mark is ignored.
+     *
+     * @param reader  source of CSV text; not closed by this method
+     * @param handler receiver for fields and record ends
+     * @return number of records parsed
+     * @throws IOException if reading fails
+     */
+    public int tokenize(Reader reader, FieldHandler handler) throws IOException {
+        this.handler = handler;
+        row = 0;
+        column = 0;
+        recordStarted = false;
+        field.setLength(0);
+
+        int state = FIELD_START;
+        boolean skipLineFeed = false;
+        boolean firstChar = true;
+        int read;
+
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+
+                if (firstChar) {
+                    firstChar = false;
+                    if (c == '\uFEFF') continue;
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') continue;
+                }
+
+                switch (state) {
+                    case QUOTED:
+                        if (c == '"') {
+                            state = QUOTE_IN_QUOTED;
+                        } else {
+                            field.append(c);
+                        }
+                        break;
+
+                    case QUOTE_IN_QUOTED:
+                        if (c == '"') {
+                            // Escaped quote
+                            field.append(c);
+                            state = QUOTED;
+                            break;
+                        }
+                        // Closing quote; anything else is handled like an unquoted character
+                        state = UNQUOTED;
+                        // fall through
+
+                    default:
+                        if (c == ',') {
+                            endField();
+                            state = FIELD_START;
+                        } else if (c == '\n' || c == '\r') {
+                            endRecord();
+                            skipLineFeed = c == '\r';
+                            state = FIELD_START;
+                        } else if (c == '"' && state == FIELD_START) {
+                            recordStarted = true;
+                            state = QUOTED;
+                        } else {
+                            recordStarted = true;
+                            field.append(c);
+                            state = UNQUOTED;
+                        }
+                        break;
+                }
+            }
+        }
+
+        // Final record without a trailing line break
+        endRecord();
+        this.handler = null;
+        return row;
+    }
+
+    /**
+     * Emits the current field and moves to the next column
+     */
+    private void endField() {
+        recordStarted = true;
+        handler.onField(row, column++, field);
+        field.setLength(0);
+    }
+
+    /**
+     * Emits the last field of the current record, unless the line was blank
+     */
+    private void endRecord() {
+        if (!recordStarted) {
+            return;
+        }
+        handler.onField(row, column++, field);
+        handler.onRecordEnd(row, column);
+        field.setLength(0);
+        column = 0;
+        row++;
+        recordStarted = false;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default QuizDataMetrics: keeps a latency histogram and an error count per
+ * operation in memory, for the lifetime of the process.
+ * dump() renders them as a table, e.g. through
+ * "adb shell dumpsys activity edu.uga.cs.superfinalstatecapital".
+ */
+public class InMemoryQuizDataMetrics implements QuizDataMetrics {
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    /**
+     * Creates empty metrics for every operation
+     */
+    public InMemoryQuizDataMetrics() {
+        // Filled once up front so the maps are only read afterwards
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    @Override
+    public void record(Operation operation, long durationNanos, boolean failed) {
+        latencies.get(operation).record(durationNanos / 1000);
+        if (failed) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the latency histogram of an operation
+     *
+     * @param operation the operation
+     * @return its histogram, in microseconds
+     */
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    /**
+     * Returns how many times an operation failed
+     *
+     * @param operation the operation
+     * @return the error count
+     */
+    public long getErrorCount(Operation operation) {
+        return errors.get(operation).get();
+    }
+
+    /**
+     * Clears all recorded metrics
+     */
+    public void reset() {
+        for (Operation operation : Operation.values()) {
+            latencies.get(operation).reset();
+            errors.get(operation).set(0);
+        }
+    }
+
+    /**
+     * Renders count, errors and latency percentiles of every operation that ran
+     *
+     * @return a table with one line per operation, latencies in microseconds
+     */
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "%-22s %8s %6s %9s %9s %9s %9s %10s%n",
+                "operation", "count", "errors", "mean_us", "p50_us", "p90_us", "p99_us", "max_us"));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram latency = latencies.get(operation);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.US, "%-22s %8d %6d %9.0f %9d %9d %9d %10d%n",
+                    operation.name().toLowerCase(Locale.US),
+                    latency.getCount(),
+                    getErrorCount(operation),
+                    latency.getMeanMicros(),
+                    latency.getValueAtPercentile(50),
+                    latency.getValueAtPercentile(90),
+                    latency.getValueAtPercentile(99),
+                    latency.getMaxMicros()));
+        }
+        return out.toString();
+    }
+}
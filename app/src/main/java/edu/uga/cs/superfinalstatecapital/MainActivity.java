@@ -3,6 +3,8 @@ package edu.uga.cs.superfinalstatecapital;
 import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 
 /**
  * Main activity for the State Capitals Quiz app.
@@ -24,4 +26,18 @@ public class MainActivity extends AppCompatActivity {
                     .commit();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds the database operation metrics to the activity dump, so they can be read with
+     * "adb shell dumpsys activity edu.uga.cs.superfinalstatecapital".
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        QuizDataMetrics metrics = QuizData.getMetrics();
+        if (metrics instanceof InMemoryQuizDataMetrics) {
+            writer.println(prefix + "QuizData metrics:");
+            writer.print(((InMemoryQuizDataMetrics) metrics).dump());
+        }
+    }
+}
@@ -14,7 +14,14 @@ import androidx.fragment.app.Fragment;
  */
 public class MainFragment extends Fragment {
 
-    private QuizData quizData = null;  // Database helper instance
+    private QuizRepository quizRepository = null;  // Async database access
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        quizRepository = QuizRepository.getInstance(requireContext());
+        quizRepository.acquire();
+    }
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
@@ -28,6 +35,7 @@ public class MainFragment extends Fragment {
 
         // Initialize navigation buttons
         Button startQuizButton = view.findViewById(R.id.buttonStartQuiz);
+        Button practiceButton = view.findViewById(R.id.buttonPracticeWeakStates);
         Button viewResultsButton = view.findViewById(R.id.buttonViewResults);
 
         // Navigate to quiz screen
@@ -42,6 +50,18 @@ public class MainFragment extends Fragment {
             }
         });
 
+        // Navigate to an adaptive quiz weighted towards weak states
+        practiceButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Fragment quizFragment = QuizFragment.newAdaptiveInstance();
+                getParentFragmentManager().beginTransaction()
+                        .replace(R.id.fragment_container, quizFragment)
+                        .addToBackStack(null)
+                        .commit();
+            }
+        });
+
         // Navigate to results screen
         viewResultsButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -55,34 +75,27 @@ public class MainFragment extends Fragment {
         });
 
         // Set up database and load initial data if needed
-        setupDatabase();
+        setupDatabase(startQuizButton, practiceButton);
     }
 
     /**
-     * Initializes database and loads CSV data if database is empty
+     * Initializes database and loads state data if it has not been seeded yet.
+     * The quiz buttons stay disabled until the states are available, at which
+     * point the activity reports itself fully drawn for startup metrics.
      */
-    private void setupDatabase() {
-        quizData = new QuizData(getContext());
-        quizData.open();
-
-        if (quizData.retrieveAllStates().isEmpty()) {
-            CSVReader.readStateData(getContext(), quizData);
-        }
-    }
-
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (quizData != null && !quizData.isDBOpen()) {
-            quizData.open();
-        }
+    private void setupDatabase(Button startQuizButton, Button practiceButton) {
+        startQuizButton.setEnabled(false);
+        practiceButton.setEnabled(false);
+        quizRepository.loadStatesIfNeeded(getViewLifecycleOwner(), loaded -> {
+            startQuizButton.setEnabled(loaded);
+            practiceButton.setEnabled(loaded);
+            requireActivity().reportFullyDrawn();
+        });
     }
 
     @Override
-    public void onPause() {
-        super.onPause();
-        if (quizData != null) {
-            quizData.close();
-        }
+    public void onDestroy() {
+        super.onDestroy();
+        quizRepository.release();
     }
 }
\ No newline at end of file
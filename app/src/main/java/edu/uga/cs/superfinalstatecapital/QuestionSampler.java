@@ -0,0 +1,64 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import java.util.Random;
+
+/**
+ * Picks distinct question IDs for a quiz.
+ * Uses a partial Fisher-Yates shuffle over a primitive ID array, so drawing
+ * k questions costs O(k) swaps with no retries, whatever the catalog size.
+ */
+public class QuestionSampler {
+
+    private final long[] ids;
+    private final Random random;
+
+    /**
+     * Creates a sampler with an unseeded random source
+     *
+     * @param ids candidate IDs; the array is copied
+     */
+    public QuestionSampler(long[] ids) {
+        this(ids, new Random());
+    }
+
+    /**
+     * Creates a sampler with the given random source, e.g. a seeded one for tests
+     *
+     * @param ids    candidate IDs; the array is copied
+     * @param random random source used for shuffling
+     */
+    public QuestionSampler(long[] ids, Random random) {
+        this.ids = ids.clone();
+        this.random = random;
+    }
+
+    /**
+     * Returns the number of candidate IDs
+     *
+     * @return the number of candidates
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Draws distinct IDs in random order.
+     * Asking for more IDs than exist returns every ID, shuffled.
+     *
+     * @param count number of IDs wanted
+     * @return array of min(count, size()) distinct IDs
+     */
+    public long[] sample(int count) {
+        int k = Math.min(Math.max(count, 0), ids.length);
+        // Swap a random remaining element into each of the first k slots
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(ids.length - i);
+            long swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        long[] sample = new long[k];
+        System.arraycopy(ids, 0, sample, 0, k);
+        return sample;
+    }
+}
@@ -3,28 +3,122 @@ package edu.uga.cs.superfinalstatecapital;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
-import java.text.SimpleDateFormat;
+import edu.uga.cs.superfinalstatecapital.QuizDataMetrics.Operation;
+
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Manages all database operations for the State Capitals Quiz app.
  * Handles states data, quiz tracking, and results storage/retrieval.
+ * The latency and outcome of each operation are reported to the installed
+ * QuizDataMetrics.
  */
 public class QuizData {
     public static final String DEBUG_TAG = "QuizData";
-    private static final int QUESTIONS_PER_QUIZ = 6;
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    // Receives the timing of every operation, shared by all instances
+    private static volatile QuizDataMetrics metrics = new InMemoryQuizDataMetrics();
+
+    // Hot write statements, compiled once per open connection
+    static final String INSERT_QUESTION_SQL = "INSERT INTO " + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS + " ("
+            + StateQuizDBHelper.QUESTION_COLUMN_QUIZ_ID + ", "
+            + StateQuizDBHelper.QUESTION_COLUMN_STATE_ID + ", "
+            + StateQuizDBHelper.QUESTION_COLUMN_ANSWER_CHOICE + ") VALUES (?, ?, ?)";
+    static final String UPDATE_SCORE_SQL = "UPDATE " + StateQuizDBHelper.TABLE_QUIZZES + " SET "
+            + StateQuizDBHelper.QUIZ_COLUMN_SCORE + " = ?, "
+            + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " = ? WHERE "
+            + StateQuizDBHelper.QUIZ_COLUMN_ID + " = ?";
+    static final String SAVE_STATE_SQL = "UPDATE " + StateQuizDBHelper.TABLE_QUIZZES + " SET "
+            + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " = ?, "
+            + StateQuizDBHelper.QUIZ_COLUMN_SCORE + " = ?, "
+            + StateQuizDBHelper.QUIZ_COLUMN_LAST_ANSWER + " = ? WHERE "
+            + StateQuizDBHelper.QUIZ_COLUMN_ID + " = ?";
+
+    // One question of a quiz plan, written when the quiz starts
+    static final String INSERT_PLAN_SQL = "INSERT INTO " + StateQuizDBHelper.TABLE_QUIZ_PLAN + " ("
+            + StateQuizDBHelper.PLAN_COLUMN_QUIZ_ID + ", "
+            + StateQuizDBHelper.PLAN_COLUMN_POSITION + ", "
+            + StateQuizDBHelper.PLAN_COLUMN_STATE_ID + ", "
+            + StateQuizDBHelper.PLAN_COLUMN_CHOICE_ORDER + ") VALUES (?, ?, ?, ?)";
+
+    // A quiz plan in question order, read as one primary key range
+    static final String QUIZ_PLAN_QUERY = "SELECT " + StateQuizDBHelper.PLAN_COLUMN_STATE_ID + ", "
+            + StateQuizDBHelper.PLAN_COLUMN_CHOICE_ORDER + " FROM " + StateQuizDBHelper.TABLE_QUIZ_PLAN
+            + " WHERE " + StateQuizDBHelper.PLAN_COLUMN_QUIZ_ID + " = ? ORDER BY "
+            + StateQuizDBHelper.PLAN_COLUMN_POSITION;
+
+    // Per-state answer counts, seeded with a zero row the first time a state is asked
+    static final String SEED_STATE_STATS_SQL = "INSERT OR IGNORE INTO " + StateQuizDBHelper.TABLE_STATE_STATS + " ("
+            + StateQuizDBHelper.STATE_STATS_COLUMN_STATE_ID + ", "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT + ", "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT + ") VALUES (?, 0, 0)";
+    static final String UPDATE_STATE_STATS_SQL = "UPDATE " + StateQuizDBHelper.TABLE_STATE_STATS + " SET "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT + " = "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT + " + 1, "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT + " = "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT + " + ?, "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_LAST_ASKED_AT + " = ? WHERE "
+            + StateQuizDBHelper.STATE_STATS_COLUMN_STATE_ID + " = ?";
+
+    // Stored progress of a quiz, read by each answer batch to skip replayed answers
+    static final String QUESTIONS_ANSWERED_SQL = "SELECT " + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED
+            + " FROM " + StateQuizDBHelper.TABLE_QUIZZES + " WHERE " + StateQuizDBHelper.QUIZ_COLUMN_ID + " = ?";
+
+    // Completion check and quiz_stats update, run in the transaction that completes a quiz
+    static final String IS_COMPLETE_SQL = "SELECT " + StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED
+            + " >= " + StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT + " FROM " + StateQuizDBHelper.TABLE_QUIZZES
+            + " WHERE " + StateQuizDBHelper.QUIZ_COLUMN_ID + " = ?";
+    static final String RECORD_COMPLETION_SQL;
+    static {
+        String quizRow = " FROM " + StateQuizDBHelper.TABLE_QUIZZES
+                + " WHERE " + StateQuizDBHelper.QUIZ_COLUMN_ID + " = ?1)";
+        String score = "(SELECT " + StateQuizDBHelper.QUIZ_COLUMN_SCORE + quizRow;
+        String questionCount = "(SELECT " + StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT + quizRow;
+        String perfect = "(SELECT " + StateQuizDBHelper.QUIZ_COLUMN_SCORE + " >= "
+                + StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT + quizRow;
+        String streak = "(" + StateQuizDBHelper.STATS_COLUMN_CURRENT_STREAK + " + 1) * " + perfect;
+        RECORD_COMPLETION_SQL = "UPDATE " + StateQuizDBHelper.TABLE_QUIZ_STATS + " SET "
+                + StateQuizDBHelper.STATS_COLUMN_COMPLETED_COUNT + " = "
+                + StateQuizDBHelper.STATS_COLUMN_COMPLETED_COUNT + " + 1, "
+                + StateQuizDBHelper.STATS_COLUMN_TOTAL_SCORE + " = "
+                + StateQuizDBHelper.STATS_COLUMN_TOTAL_SCORE + " + " + score + ", "
+                + StateQuizDBHelper.STATS_COLUMN_TOTAL_QUESTIONS + " = "
+                + StateQuizDBHelper.STATS_COLUMN_TOTAL_QUESTIONS + " + " + questionCount + ", "
+                + StateQuizDBHelper.STATS_COLUMN_PERFECT_COUNT + " = "
+                + StateQuizDBHelper.STATS_COLUMN_PERFECT_COUNT + " + " + perfect + ", "
+                + StateQuizDBHelper.STATS_COLUMN_CURRENT_STREAK + " = " + streak + ", "
+                + StateQuizDBHelper.STATS_COLUMN_BEST_STREAK + " = MAX("
+                + StateQuizDBHelper.STATS_COLUMN_BEST_STREAK + ", " + streak + "), "
+                + StateQuizDBHelper.STATS_COLUMN_FIRST_COMPLETED_AT + " = COALESCE("
+                + StateQuizDBHelper.STATS_COLUMN_FIRST_COMPLETED_AT + ", ?2), "
+                + StateQuizDBHelper.STATS_COLUMN_LAST_COMPLETED_AT + " = ?2 WHERE "
+                + StateQuizDBHelper.STATS_COLUMN_ID + " = " + StateQuizDBHelper.STATS_ROW_ID;
+    }
 
     // Database instance and helper
     private SQLiteDatabase db;
     private SQLiteOpenHelper quizDbHelper;
 
+    // Compiled hot write statements; each is locked while bound and executed
+    private SQLiteStatement insertQuestionStatement;
+    private SQLiteStatement updateScoreStatement;
+    private SQLiteStatement saveStateStatement;
+    private SQLiteStatement questionsAnsweredStatement;
+    private SQLiteStatement isCompleteStatement;
+    private SQLiteStatement recordCompletionStatement;
+    private SQLiteStatement seedStateStatsStatement;
+    private SQLiteStatement updateStateStatsStatement;
+    private SQLiteStatement insertPlanStatement;
+
     // Column names for state table queries
     private static final String[] allStateColumns = {
             StateQuizDBHelper.STATES_COLUMN_ID,
@@ -34,6 +128,28 @@ public class QuizData {
             StateQuizDBHelper.STATES_COLUMN_CITY3
     };
 
+    /**
+     * Installs the metrics that receive operation timings
+     * @param quizDataMetrics the metrics, or QuizDataMetrics.NONE to disable recording
+     */
+    public static void setMetrics(QuizDataMetrics quizDataMetrics) {
+        metrics = quizDataMetrics;
+    }
+
+    /**
+     * Returns the installed metrics; an InMemoryQuizDataMetrics unless replaced
+     */
+    public static QuizDataMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Reports an operation that started at startNanos to the metrics
+     */
+    private static void record(Operation operation, long startNanos, boolean failed) {
+        metrics.record(operation, System.nanoTime() - startNanos, failed);
+    }
+
     /**
      * Initializes database access helper
      */
@@ -45,7 +161,17 @@ public class QuizData {
      * Opens writable database connection
      */
     public void open() {
+        releaseStatements();
         db = quizDbHelper.getWritableDatabase();
+        insertQuestionStatement = db.compileStatement(INSERT_QUESTION_SQL);
+        updateScoreStatement = db.compileStatement(UPDATE_SCORE_SQL);
+        saveStateStatement = db.compileStatement(SAVE_STATE_SQL);
+        questionsAnsweredStatement = db.compileStatement(QUESTIONS_ANSWERED_SQL);
+        isCompleteStatement = db.compileStatement(IS_COMPLETE_SQL);
+        recordCompletionStatement = db.compileStatement(RECORD_COMPLETION_SQL);
+        seedStateStatsStatement = db.compileStatement(SEED_STATE_STATS_SQL);
+        updateStateStatsStatement = db.compileStatement(UPDATE_STATE_STATS_SQL);
+        insertPlanStatement = db.compileStatement(INSERT_PLAN_SQL);
         Log.d(DEBUG_TAG, "QuizData: db open");
     }
 
@@ -53,12 +179,113 @@ public class QuizData {
      * Closes database connection if open
      */
     public void close() {
+        releaseStatements();
         if (quizDbHelper != null) {
             quizDbHelper.close();
             Log.d(DEBUG_TAG, "QuizData: db closed");
         }
     }
 
+    /**
+     * Closes the compiled write statements of the previous connection, if any
+     */
+    private void releaseStatements() {
+        SQLiteStatement[] statements = {insertQuestionStatement, updateScoreStatement, saveStateStatement,
+                questionsAnsweredStatement, isCompleteStatement, recordCompletionStatement,
+                seedStateStatsStatement, updateStateStatsStatement, insertPlanStatement};
+        for (SQLiteStatement statement : statements) {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+        insertQuestionStatement = null;
+        updateScoreStatement = null;
+        saveStateStatement = null;
+        questionsAnsweredStatement = null;
+        isCompleteStatement = null;
+        recordCompletionStatement = null;
+        seedStateStatsStatement = null;
+        updateStateStatsStatement = null;
+        insertPlanStatement = null;
+    }
+
+    /**
+     * Inserts one answer and adds it to the state's stats.
+     * Must be called inside a write transaction.
+     */
+    private void insertAnswer(long quizId, long stateId, int answerChoice, long now) {
+        SQLiteStatement insertStatement = insertQuestionStatement;
+        synchronized (insertStatement) {
+            insertStatement.bindLong(1, quizId);
+            insertStatement.bindLong(2, stateId);
+            insertStatement.bindLong(3, answerChoice);
+            insertStatement.executeInsert();
+        }
+
+        SQLiteStatement seedStatement = seedStateStatsStatement;
+        synchronized (seedStatement) {
+            seedStatement.bindLong(1, stateId);
+            seedStatement.executeInsert();
+        }
+        SQLiteStatement updateStatement = updateStateStatsStatement;
+        synchronized (updateStatement) {
+            updateStatement.bindLong(1, State.isCorrectChoice(answerChoice) ? 1 : 0);
+            updateStatement.bindLong(2, now);
+            updateStatement.bindLong(3, stateId);
+            updateStatement.executeUpdateDelete();
+        }
+    }
+
+    /**
+     * Reads the number of questions stored as answered for a quiz.
+     * Must be called inside the write transaction that stores its answers.
+     */
+    private int questionsAnswered(long quizId) {
+        SQLiteStatement statement = questionsAnsweredStatement;
+        synchronized (statement) {
+            statement.bindLong(1, quizId);
+            return (int) statement.simpleQueryForLong();
+        }
+    }
+
+    /**
+     * Checks whether every question of a quiz has been answered.
+     * Must be called inside the write transaction that changes its progress.
+     */
+    private boolean isComplete(long quizId) {
+        SQLiteStatement statement = isCompleteStatement;
+        synchronized (statement) {
+            statement.bindLong(1, quizId);
+            return statement.simpleQueryForLong() != 0;
+        }
+    }
+
+    /**
+     * Adds a quiz that has just been completed to the quiz_stats aggregates,
+     * using its stored score and question count.
+     * Must be called inside the write transaction that completed it.
+     */
+    private void recordCompletion(long quizId) {
+        SQLiteStatement statement = recordCompletionStatement;
+        synchronized (statement) {
+            statement.bindLong(1, quizId);
+            statement.bindLong(2, System.currentTimeMillis());
+            statement.executeUpdateDelete();
+        }
+        Log.d(DEBUG_TAG, "Recorded completion of quiz: " + quizId);
+    }
+
+    /**
+     * Binds a text argument, or NULL for a null value
+     */
+    private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
     /**
      * Checks if database connection is active
      */
@@ -66,12 +293,23 @@ public class QuizData {
         return db != null && db.isOpen();
     }
 
+    /**
+     * Checks whether queries on other threads can run while a write transaction
+     * is open, which is the case when write-ahead logging is active.
+     * Reads get a pooled connection only when issued outside a transaction.
+     */
+    public boolean isConcurrentReadEnabled() {
+        return isDBOpen() && db.isWriteAheadLoggingEnabled();
+    }
+
     /**
      * Stores a new state in the database
      * @param state State object containing state data
      * @return Updated state object with database ID
      */
     public State storeState(State state) {
+        long startNanos = System.nanoTime();
+        boolean failed = false;
         if (state != null) {
             ContentValues values = new ContentValues();
             values.put(StateQuizDBHelper.STATES_COLUMN_NAME, state.getName());
@@ -82,76 +320,283 @@ public class QuizData {
             try {
                 long id = db.insert(StateQuizDBHelper.TABLE_STATES, null, values);
                 state.setId(id);
+                StateCatalog.invalidate();
+                failed = id == -1;
                 Log.d(DEBUG_TAG, "Stored new state with id: " + id);
             } catch (Exception e) {
+                failed = true;
                 Log.e(DEBUG_TAG, "Error storing state: " + e.getMessage());
             }
         }
+        record(Operation.STORE_STATE, startNanos, failed);
         return state;
     }
 
+    /**
+     * Stores many states in a single transaction, updating states already stored by name
+     * @param states states to store; each is updated with its database ID
+     * @return number of states stored, or 0 if the import was rolled back
+     */
+    public int storeStates(List<State> states) {
+        StateImport stateImport = beginStateImport();
+        try {
+            for (State state : states) {
+                state.setId(stateImport.insert(state.getName(), state.getCapital(),
+                        state.getCity2(), state.getCity3()));
+            }
+            stateImport.setSuccessful();
+        } catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error storing states: " + e.getMessage());
+        }
+        return stateImport.finish();
+    }
+
+    /**
+     * Starts a bulk state import: one transaction and one set of compiled statements.
+     * Must be used from a single thread and always ended with finish().
+     * @return import handle
+     */
+    public StateImport beginStateImport() {
+        return new StateImport();
+    }
+
     /**
      * Creates new quiz entry with current timestamp
+     * @param questionCount Number of questions in the quiz
      * @return ID of created quiz or -1 if creation failed
      */
-    public long startNewQuiz() {
+    public long startNewQuiz(int questionCount) {
+        long startNanos = System.nanoTime();
         long id = -1;
-        ContentValues values = new ContentValues();
-        String currentDate = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss",
-                Locale.getDefault()).format(new Date());
-        values.put(StateQuizDBHelper.QUIZ_COLUMN_DATE, currentDate);
-        values.put(StateQuizDBHelper.QUIZ_COLUMN_SCORE, 0);
-        values.put(StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED, 0);
-
         try {
-            id = db.insert(StateQuizDBHelper.TABLE_QUIZZES, null, values);
+            id = insertQuiz(questionCount);
             Log.d(DEBUG_TAG, "Created new quiz with id: " + id);
         } catch (Exception e) {
             Log.e(DEBUG_TAG, "Error creating quiz: " + e.getMessage());
         }
+        record(Operation.START_NEW_QUIZ, startNanos, id == -1);
+        return id;
+    }
+
+    /**
+     * Creates new quiz entry with current timestamp and stores its question plan
+     * in the same transaction
+     * @param plan States and choice orders of the quiz, in question order
+     * @return ID of created quiz or -1 if creation failed
+     */
+    public long startNewQuiz(QuizPlan plan) {
+        long startNanos = System.nanoTime();
+        long id = -1;
+        try {
+            db.beginTransactionNonExclusive();
+            try {
+                long quizId = insertQuiz(plan.size());
+                if (quizId != -1) {
+                    SQLiteStatement insertPlan = insertPlanStatement;
+                    synchronized (insertPlan) {
+                        for (int position = 0; position < plan.size(); position++) {
+                            insertPlan.bindLong(1, quizId);
+                            insertPlan.bindLong(2, position);
+                            insertPlan.bindLong(3, plan.getStateId(position));
+                            insertPlan.bindLong(4, plan.getEncodedChoiceOrder(position));
+                            insertPlan.executeInsert();
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                    id = quizId;
+                }
+            } finally {
+                db.endTransaction();
+            }
+            Log.d(DEBUG_TAG, "Created new quiz with id: " + id + " and " + plan.size() + " planned questions");
+        } catch (Exception e) {
+            id = -1;
+            Log.e(DEBUG_TAG, "Error creating quiz: " + e.getMessage());
+        }
+        record(Operation.START_NEW_QUIZ, startNanos, id == -1);
         return id;
     }
 
     /**
-     * Stores a quiz question answer
+     * Inserts a quiz row with no answers yet
+     * @return ID of the quiz or -1 if the insert failed
+     */
+    private long insertQuiz(int questionCount) {
+        ContentValues values = new ContentValues();
+        values.put(StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP, System.currentTimeMillis());
+        values.put(StateQuizDBHelper.QUIZ_COLUMN_SCORE, 0);
+        values.put(StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED, 0);
+        values.put(StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT, questionCount);
+        return db.insert(StateQuizDBHelper.TABLE_QUIZZES, null, values);
+    }
+
+    /**
+     * Stores a quiz question answer and updates the state's answer stats
+     * in the same transaction
      * @param quizId ID of current quiz
      * @param stateId ID of state being asked about
-     * @param userAnswer User's selected answer
+     * @param answerChoice Choice code of the selected city, see State.CHOICE_CAPITAL
      */
-    public void storeQuizQuestion(long quizId, long stateId, String userAnswer) {
+    public void storeQuizQuestion(long quizId, long stateId, int answerChoice) {
+        long startNanos = System.nanoTime();
+        boolean failed = false;
         try {
-            ContentValues values = new ContentValues();
-            values.put(StateQuizDBHelper.QUESTION_COLUMN_QUIZ_ID, quizId);
-            values.put(StateQuizDBHelper.QUESTION_COLUMN_STATE_ID, stateId);
-            values.put(StateQuizDBHelper.QUESTION_COLUMN_USER_ANSWER, userAnswer);
-
-            db.insert(StateQuizDBHelper.TABLE_QUIZ_QUESTIONS, null, values);
+            long now = System.currentTimeMillis();
+            db.beginTransactionNonExclusive();
+            try {
+                insertAnswer(quizId, stateId, answerChoice, now);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            AdaptiveSampler.recordAnswerIfLoaded(stateId, State.isCorrectChoice(answerChoice), now);
             Log.d(DEBUG_TAG, "Stored quiz question for quiz: " + quizId);
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error storing quiz question: " + e.getMessage());
         }
+        record(Operation.STORE_QUIZ_QUESTION, startNanos, failed);
+    }
+
+    /**
+     * Stores a batch of answers, their per-state stats and the quiz progress in one transaction.
+     * Answers are numbered by question index from firstIndex; any index below the
+     * quiz's stored questions_answered is already saved and skipped, so replaying
+     * a batch after an uncertain flush does not duplicate rows.
+     * Once the batch commits, its new answers are passed on to the adaptive sampler.
+     * @param quizId ID of quiz the answers belong to
+     * @param firstIndex Question index of the first answer in the batch
+     * @param stateIds IDs of the states asked about, one per answer
+     * @param answerChoices Choice codes of the selected cities, one per answer
+     * @param score Score after the last answer in the batch
+     * @return Number of questions answered as stored after the batch, or -1 on error
+     */
+    public int storeAnswers(long quizId, int firstIndex, long[] stateIds, int[] answerChoices, int score) {
+        long startNanos = System.nanoTime();
+        int storedCount = -1;
+        int firstNew = stateIds.length;
+        long now = System.currentTimeMillis();
+
+        db.beginTransactionNonExclusive();
+        try {
+            int alreadyStored = questionsAnswered(quizId);
+
+            firstNew = Math.max(0, alreadyStored - firstIndex);
+            for (int i = firstNew; i < stateIds.length; i++) {
+                insertAnswer(quizId, stateIds[i], answerChoices[i], now);
+            }
+
+            int answered = firstIndex + stateIds.length;
+            if (answered > alreadyStored) {
+                boolean wasComplete = isComplete(quizId);
+                SQLiteStatement updateStatement = updateScoreStatement;
+                synchronized (updateStatement) {
+                    updateStatement.bindLong(1, score);
+                    updateStatement.bindLong(2, answered);
+                    updateStatement.bindLong(3, quizId);
+                    updateStatement.executeUpdateDelete();
+                }
+                if (!wasComplete && isComplete(quizId)) {
+                    recordCompletion(quizId);
+                }
+            }
+            db.setTransactionSuccessful();
+            storedCount = Math.max(answered, alreadyStored);
+            Log.d(DEBUG_TAG, "Stored " + (storedCount - alreadyStored) + " answers for quiz: " + quizId);
+        } catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error storing answers: " + e.getMessage());
+        } finally {
+            db.endTransaction();
+        }
+        if (storedCount != -1) {
+            for (int i = firstNew; i < stateIds.length; i++) {
+                AdaptiveSampler.recordAnswerIfLoaded(stateIds[i], State.isCorrectChoice(answerChoices[i]), now);
+            }
+        }
+        record(Operation.STORE_ANSWERS, startNanos, storedCount == -1);
+        return storedCount;
     }
 
     /**
-     * Updates quiz score and progress
+     * Updates quiz score and progress; if this completes the quiz, the quiz_stats
+     * aggregates are updated in the same transaction
      * @param quizId ID of quiz to update
      * @param score Current score
      * @param questionsAnswered Number of questions completed
      */
     public void updateQuizScore(long quizId, int score, int questionsAnswered) {
+        long startNanos = System.nanoTime();
+        boolean failed = false;
         try {
-            ContentValues values = new ContentValues();
-            values.put(StateQuizDBHelper.QUIZ_COLUMN_SCORE, score);
-            values.put(StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED, questionsAnswered);
-
-            String whereClause = StateQuizDBHelper.QUIZ_COLUMN_ID + "=?";
-            String[] whereArgs = {String.valueOf(quizId)};
-
-            int rowsUpdated = db.update(StateQuizDBHelper.TABLE_QUIZZES, values, whereClause, whereArgs);
+            int rowsUpdated;
+            db.beginTransactionNonExclusive();
+            try {
+                boolean wasComplete = isComplete(quizId);
+                SQLiteStatement statement = updateScoreStatement;
+                synchronized (statement) {
+                    statement.bindLong(1, score);
+                    statement.bindLong(2, questionsAnswered);
+                    statement.bindLong(3, quizId);
+                    rowsUpdated = statement.executeUpdateDelete();
+                }
+                if (!wasComplete && isComplete(quizId)) {
+                    recordCompletion(quizId);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
             Log.d(DEBUG_TAG, "Updated quiz score. Rows affected: " + rowsUpdated);
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error updating quiz score: " + e.getMessage());
         }
+        record(Operation.UPDATE_QUIZ_SCORE, startNanos, failed);
+    }
+
+    /**
+     * Checks whether the states table has any rows
+     * @return true if at least one state is stored
+     */
+    public boolean hasStates() {
+        try {
+            return DatabaseUtils.longForQuery(db, "SELECT EXISTS(SELECT 1 FROM "
+                    + StateQuizDBHelper.TABLE_STATES + ")", null) != 0;
+        } catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error checking for states: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the version of the states dataset the states table was last seeded from
+     * @return the recorded version, or 0 if none is recorded or on error
+     */
+    public int getStatesDatasetVersion() {
+        try {
+            return (int) DatabaseUtils.longForQuery(db, "SELECT COALESCE(MAX("
+                    + StateQuizDBHelper.METADATA_COLUMN_VALUE + "), 0) FROM " + StateQuizDBHelper.TABLE_METADATA
+                    + " WHERE " + StateQuizDBHelper.METADATA_COLUMN_KEY + " = ?",
+                    new String[]{StateQuizDBHelper.METADATA_KEY_STATES_DATASET_VERSION});
+        } catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error reading states dataset version: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Records the version of the states dataset the states table was seeded from
+     * @return true if the version was stored
+     */
+    public boolean storeStatesDatasetVersion(int version) {
+        try {
+            db.execSQL("INSERT OR REPLACE INTO " + StateQuizDBHelper.TABLE_METADATA + " VALUES (?, ?)",
+                    new Object[]{StateQuizDBHelper.METADATA_KEY_STATES_DATASET_VERSION, version});
+            return true;
+        } catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error storing states dataset version: " + e.getMessage());
+            return false;
+        }
     }
 
     /**
@@ -161,6 +606,8 @@ public class QuizData {
     public List<State> retrieveAllStates() {
         ArrayList<State> states = new ArrayList<>();
         Cursor cursor = null;
+        long startNanos = System.nanoTime();
+        boolean failed = false;
 
         try {
             cursor = db.query(StateQuizDBHelper.TABLE_STATES, allStateColumns,
@@ -184,12 +631,14 @@ public class QuizData {
                 }
             }
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error retrieving states: " + e.getMessage());
         } finally {
             if (cursor != null && !cursor.isClosed()) {
                 cursor.close();
             }
         }
+        record(Operation.RETRIEVE_ALL_STATES, startNanos, failed);
         return states;
     }
 
@@ -198,44 +647,180 @@ public class QuizData {
      * @return List of quiz results
      */
     public List<QuizResult> getPastQuizResults() {
+        return queryQuizResults(null, null, null);
+    }
+
+    /**
+     * Retrieves one page of past quiz results, newest first.
+     * Uses keyset pagination on (timestamp, id), so each page is an index range read
+     * regardless of how deep into the history it is.
+     * @param after last result of the previous page, or null for the first page
+     * @param limit maximum number of results to return
+     * @return List of quiz results
+     */
+    public List<QuizResult> getPastQuizResults(QuizResult after, int limit) {
+        if (after == null) {
+            return queryQuizResults(null, null, String.valueOf(limit));
+        }
+        String timestamp = String.valueOf(after.getTimestamp());
+        String selection = StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + " <= ? AND (" +
+                StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + " < ? OR " +
+                StateQuizDBHelper.QUIZ_COLUMN_ID + " < ?)";
+        String[] selectionArgs = {timestamp, timestamp, String.valueOf(after.getId())};
+        return queryQuizResults(selection, selectionArgs, String.valueOf(limit));
+    }
+
+    /**
+     * Queries quiz results ordered newest first
+     * @param selection WHERE clause, or null for all quizzes
+     * @param selectionArgs arguments for the WHERE clause
+     * @param limit LIMIT clause, or null for no limit
+     * @return List of quiz results
+     */
+    private List<QuizResult> queryQuizResults(String selection, String[] selectionArgs, String limit) {
         ArrayList<QuizResult> results = new ArrayList<>();
         Cursor cursor = null;
+        long startNanos = System.nanoTime();
+        boolean failed = false;
 
         try {
             cursor = db.query(StateQuizDBHelper.TABLE_QUIZZES,
-                    null, null, null, null, null,
-                    StateQuizDBHelper.QUIZ_COLUMN_DATE + " DESC");
+                    null, selection, selectionArgs, null, null,
+                    StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + " DESC, " +
+                            StateQuizDBHelper.QUIZ_COLUMN_ID + " DESC",
+                    limit);
 
             if (cursor != null && cursor.getCount() > 0) {
                 int idIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_ID);
-                int dateIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_DATE);
+                int timestampIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP);
                 int scoreIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_SCORE);
+                int questionCountIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT);
 
                 while (cursor.moveToNext()) {
                     long id = idIndex >= 0 ? cursor.getLong(idIndex) : -1;
-                    String date = dateIndex >= 0 ? cursor.getString(dateIndex) : "";
+                    long timestamp = timestampIndex >= 0 ? cursor.getLong(timestampIndex) : 0;
                     int score = scoreIndex >= 0 ? cursor.getInt(scoreIndex) : 0;
+                    int questionCount = questionCountIndex >= 0 ? cursor.getInt(questionCountIndex)
+                            : StateQuizDBHelper.LEGACY_QUESTION_COUNT;
 
-                    QuizResult result = new QuizResult(id, date, score);
+                    QuizResult result = new QuizResult(id, timestamp, score, questionCount);
                     results.add(result);
                 }
             }
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error retrieving quiz results: " + e.getMessage());
         } finally {
             if (cursor != null && !cursor.isClosed()) {
                 cursor.close();
             }
         }
+        record(Operation.GET_PAST_QUIZ_RESULTS, startNanos, failed);
         return results;
     }
 
+    /**
+     * Retrieves the aggregate statistics over all completed quizzes.
+     * Reads the single quiz_stats row, so the cost does not grow with the history.
+     * @return the statistics, or QuizStats.EMPTY if none are available
+     */
+    public QuizStats getQuizStats() {
+        QuizStats stats = QuizStats.EMPTY;
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+
+        try (Cursor cursor = db.rawQuery("SELECT "
+                + StateQuizDBHelper.STATS_COLUMN_COMPLETED_COUNT + ", "
+                + StateQuizDBHelper.STATS_COLUMN_TOTAL_SCORE + ", "
+                + StateQuizDBHelper.STATS_COLUMN_TOTAL_QUESTIONS + ", "
+                + StateQuizDBHelper.STATS_COLUMN_PERFECT_COUNT + ", "
+                + StateQuizDBHelper.STATS_COLUMN_CURRENT_STREAK + ", "
+                + StateQuizDBHelper.STATS_COLUMN_BEST_STREAK + ", "
+                + StateQuizDBHelper.STATS_COLUMN_FIRST_COMPLETED_AT + ", "
+                + StateQuizDBHelper.STATS_COLUMN_LAST_COMPLETED_AT + " FROM "
+                + StateQuizDBHelper.TABLE_QUIZ_STATS, null)) {
+            if (cursor.moveToFirst()) {
+                stats = new QuizStats(cursor.getInt(0), cursor.getLong(1), cursor.getLong(2),
+                        cursor.getInt(3), cursor.getInt(4), cursor.getInt(5),
+                        cursor.getLong(6), cursor.getLong(7));
+            }
+        } catch (Exception e) {
+            failed = true;
+            Log.e(DEBUG_TAG, "Error getting quiz stats: " + e.getMessage());
+        }
+        record(Operation.GET_QUIZ_STATS, startNanos, failed);
+        return stats;
+    }
+
+    /**
+     * Retrieves the answer counts of every state asked at least once, from the
+     * per-state rollup; the state names are not loaded
+     * @return one entry per row of state_stats
+     */
+    public List<StateAccuracy> getStateStats() {
+        List<StateAccuracy> stats = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+
+        try (Cursor cursor = db.rawQuery("SELECT "
+                + StateQuizDBHelper.STATE_STATS_COLUMN_STATE_ID + ", "
+                + StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT + ", "
+                + StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT + ", "
+                + StateQuizDBHelper.STATE_STATS_COLUMN_LAST_ASKED_AT + " FROM "
+                + StateQuizDBHelper.TABLE_STATE_STATS, null)) {
+            while (cursor.moveToNext()) {
+                stats.add(new StateAccuracy(cursor.getLong(0), null,
+                        cursor.getInt(1), cursor.getInt(2), cursor.getLong(3)));
+            }
+        } catch (Exception e) {
+            failed = true;
+            Log.e(DEBUG_TAG, "Error getting state stats: " + e.getMessage());
+        }
+        record(Operation.GET_STATE_STATS, startNanos, failed);
+        return stats;
+    }
+
+    /**
+     * Retrieves the states answered wrong most often, from the per-state rollup.
+     * Ordered by error rate, then by how often the state was asked.
+     * @param limit maximum number of states to return
+     * @return states with at least one wrong answer, weakest first
+     */
+    public List<StateAccuracy> getWeakestStates(int limit) {
+        List<StateAccuracy> weakest = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+
+        String asked = "ss." + StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT;
+        String correct = "ss." + StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT;
+        try (Cursor cursor = db.rawQuery("SELECT ss." + StateQuizDBHelper.STATE_STATS_COLUMN_STATE_ID
+                + ", s." + StateQuizDBHelper.STATES_COLUMN_NAME + ", " + asked + ", " + correct
+                + ", ss." + StateQuizDBHelper.STATE_STATS_COLUMN_LAST_ASKED_AT
+                + " FROM " + StateQuizDBHelper.TABLE_STATE_STATS + " ss JOIN " + StateQuizDBHelper.TABLE_STATES
+                + " s ON s." + StateQuizDBHelper.STATES_COLUMN_ID + " = ss." + StateQuizDBHelper.STATE_STATS_COLUMN_STATE_ID
+                + " WHERE " + correct + " < " + asked
+                + " ORDER BY CAST(" + asked + " - " + correct + " AS REAL) / " + asked + " DESC, "
+                + asked + " DESC LIMIT ?", new String[]{String.valueOf(limit)})) {
+            while (cursor.moveToNext()) {
+                weakest.add(new StateAccuracy(cursor.getLong(0), cursor.getString(1),
+                        cursor.getInt(2), cursor.getInt(3), cursor.getLong(4)));
+            }
+        } catch (Exception e) {
+            failed = true;
+            Log.e(DEBUG_TAG, "Error getting weakest states: " + e.getMessage());
+        }
+        record(Operation.GET_WEAKEST_STATES, startNanos, failed);
+        return weakest;
+    }
+
     /**
      * Retrieves most recent incomplete quiz
      * @return Quiz object or null if no quiz in progress
      */
     public Quiz getQuizInProgress() {
         Quiz quiz = null;
+        long startNanos = System.nanoTime();
+        boolean failed = false;
         Cursor cursor = null;
 
         try {
@@ -243,7 +828,8 @@ public class QuizData {
 
             // Modified query to find ONLY truly interrupted quizzes
             String selection = StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " > 0 AND " +
-                    StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " < " + QUESTIONS_PER_QUIZ +
+                    StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED + " < " +
+                    StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT +
                     " AND " + StateQuizDBHelper.QUIZ_COLUMN_SCORE + " >= 0"; // Add this condition
 
             cursor = db.query(
@@ -253,7 +839,7 @@ public class QuizData {
                     null,
                     null,
                     null,
-                    StateQuizDBHelper.QUIZ_COLUMN_DATE + " DESC",
+                    StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP + " DESC",
                     "1"
             );
 
@@ -261,22 +847,26 @@ public class QuizData {
                 int idIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_ID);
                 int scoreIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_SCORE);
                 int questionsIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED);
-                int dateIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_DATE);
+                int timestampIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_TIMESTAMP);
+                int questionCountIndex = cursor.getColumnIndex(StateQuizDBHelper.QUIZ_COLUMN_QUESTION_COUNT);
 
                 long quizId = idIndex >= 0 ? cursor.getLong(idIndex) : -1;
                 int score = scoreIndex >= 0 ? cursor.getInt(scoreIndex) : 0;
                 int questionsAnswered = questionsIndex >= 0 ? cursor.getInt(questionsIndex) : 0;
-                String date = dateIndex >= 0 ? cursor.getString(dateIndex) : "";
+                long timestamp = timestampIndex >= 0 ? cursor.getLong(timestampIndex) : 0;
+                int questionCount = questionCountIndex >= 0 ? cursor.getInt(questionCountIndex)
+                        : StateQuizDBHelper.LEGACY_QUESTION_COUNT;
 
                 // Additional verification that we only return actually interrupted quizzes
-                if (questionsAnswered > 0 && questionsAnswered < QUESTIONS_PER_QUIZ) {
-                    quiz = new Quiz(quizId, date, score, questionsAnswered);
+                if (questionsAnswered > 0 && questionsAnswered < questionCount) {
+                    quiz = new Quiz(quizId, timestamp, score, questionsAnswered, questionCount);
                     Log.d(DEBUG_TAG, "Found interrupted quiz: ID=" + quizId +
-                            ", Questions=" + questionsAnswered + "/" + QUESTIONS_PER_QUIZ);
+                            ", Questions=" + questionsAnswered + "/" + questionCount);
                 }
             }
             Log.d(DEBUG_TAG, "Quiz in progress check complete");
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error getting quiz in progress: " + e.getMessage());
         } finally {
             if (cursor != null) {
@@ -284,9 +874,39 @@ public class QuizData {
             }
         }
 
+        record(Operation.GET_QUIZ_IN_PROGRESS, startNanos, failed);
         return quiz;
     }
 
+    /**
+     * Retrieves the question plan stored when a quiz was started
+     * @param quizId ID of quiz to retrieve the plan for
+     * @return The plan, or null if the quiz has none (started before plans were stored)
+     */
+    public QuizPlan getQuizPlan(long quizId) {
+        QuizPlan plan = null;
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+
+        try (Cursor cursor = db.rawQuery(QUIZ_PLAN_QUERY, new String[]{String.valueOf(quizId)})) {
+            int count = cursor.getCount();
+            if (count > 0) {
+                long[] stateIds = new long[count];
+                int[] choiceOrders = new int[count];
+                for (int i = 0; cursor.moveToNext(); i++) {
+                    stateIds[i] = cursor.getLong(0);
+                    choiceOrders[i] = cursor.getInt(1);
+                }
+                plan = new QuizPlan(stateIds, choiceOrders);
+            }
+        } catch (Exception e) {
+            failed = true;
+            Log.e(DEBUG_TAG, "Error getting quiz plan: " + e.getMessage());
+        }
+        record(Operation.GET_QUIZ_PLAN, startNanos, failed);
+        return plan;
+    }
+
     /**
      * Retrieves states used in a specific quiz
      * @param quizId ID of quiz to retrieve states for
@@ -295,6 +915,8 @@ public class QuizData {
     public List<State> getQuizStates(long quizId) {
         List<State> states = new ArrayList<>();
         Cursor cursor = null;
+        long startNanos = System.nanoTime();
+        boolean failed = false;
 
         try {
             String query = "SELECT DISTINCT s.* FROM " + StateQuizDBHelper.TABLE_STATES + " s " +
@@ -310,14 +932,14 @@ public class QuizData {
             Log.d(DEBUG_TAG, "Cursor count: " + (cursor != null ? cursor.getCount() : "null"));
 
             if (cursor != null && cursor.getCount() > 0) {
+                int idIndex = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_ID);
+                int nameIndex = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_NAME);
+                int capitalIndex = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_CAPITAL);
+                int city2Index = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_CITY2);
+                int city3Index = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_CITY3);
+
                 while (cursor.moveToNext()) {
                     State state = new State();
-                    int idIndex = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_ID);
-                    int nameIndex = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_NAME);
-                    int capitalIndex = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_CAPITAL);
-                    int city2Index = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_CITY2);
-                    int city3Index = cursor.getColumnIndex(StateQuizDBHelper.STATES_COLUMN_CITY3);
-
                     if (idIndex >= 0) state.setId(cursor.getLong(idIndex));
                     if (nameIndex >= 0) state.setName(cursor.getString(nameIndex));
                     if (capitalIndex >= 0) state.setCapital(cursor.getString(capitalIndex));
@@ -328,6 +950,7 @@ public class QuizData {
                 }
             }
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error getting quiz states: " + e.getMessage());
         } finally {
             if (cursor != null) {
@@ -336,6 +959,7 @@ public class QuizData {
         }
 
         Log.d(DEBUG_TAG, "Retrieved " + states.size() + " states for quiz");
+        record(Operation.GET_QUIZ_STATES, startNanos, failed);
         return states;
     }
 
@@ -344,40 +968,187 @@ public class QuizData {
      */
     public static class Quiz {
         private long id;              // Database ID
-        private String date;          // Quiz date/time
+        private long timestamp;       // Quiz start time, epoch millis
         private int score;            // Current score
         private int questionsAnswered;// Number of completed questions
+        private int questionCount;    // Total number of questions
 
-        public Quiz(long id, String date, int score, int questionsAnswered) {
+        public Quiz(long id, long timestamp, int score, int questionsAnswered, int questionCount) {
             this.id = id;
-            this.date = date;
+            this.timestamp = timestamp;
             this.score = score;
             this.questionsAnswered = questionsAnswered;
+            this.questionCount = questionCount;
         }
 
         // Getters
         public long getId() { return id; }
-        public String getDate() { return date; }
+        public long getTimestamp() { return timestamp; }
         public int getScore() { return score; }
         public int getQuestionsAnswered() { return questionsAnswered; }
+        public int getQuestionCount() { return questionCount; }
     }
 
 
-    // Add this method after getQuizInProgress()
-    public void saveQuizState(long quizId, int currentQuestion, int score, String selectedAnswer) {
-        ContentValues values = new ContentValues();
-        values.put(StateQuizDBHelper.QUIZ_COLUMN_QUESTIONS_ANSWERED, currentQuestion);
-        values.put(StateQuizDBHelper.QUIZ_COLUMN_SCORE, score);
-        values.put(StateQuizDBHelper.QUIZ_COLUMN_LAST_ANSWER, selectedAnswer);
+    /**
+     * Inner class holding an open bulk import of states.
+     * Rows are written through reused statements and committed together,
+     * so the whole load pays for a single journal sync.
+     * A state whose name is already stored is updated in place, so re-importing
+     * a changed dataset keeps the IDs that answers and plans refer to.
+     */
+    public class StateImport {
+        private final SQLiteStatement findStatement;
+        private final SQLiteStatement updateStatement;
+        private final SQLiteStatement insertStatement;
+        private final long importStartNanos;
+        private long batchStartNanos;
+        private int rowCount;
+        private boolean successful;
+
+        private StateImport() {
+            // The statements are compiled before the transaction begins, so a failed
+            // compile leaves no transaction open on the shared connection
+            SQLiteStatement find = null;
+            SQLiteStatement update = null;
+            SQLiteStatement insert = null;
+            try {
+                find = db.compileStatement("SELECT " + StateQuizDBHelper.STATES_COLUMN_ID
+                        + " FROM " + StateQuizDBHelper.TABLE_STATES
+                        + " WHERE " + StateQuizDBHelper.STATES_COLUMN_NAME + " = ? LIMIT 1");
+                update = db.compileStatement("UPDATE " + StateQuizDBHelper.TABLE_STATES + " SET "
+                        + StateQuizDBHelper.STATES_COLUMN_CAPITAL + " = ?, "
+                        + StateQuizDBHelper.STATES_COLUMN_CITY2 + " = ?, "
+                        + StateQuizDBHelper.STATES_COLUMN_CITY3 + " = ? WHERE "
+                        + StateQuizDBHelper.STATES_COLUMN_ID + " = ?");
+                insert = db.compileStatement("INSERT INTO " + StateQuizDBHelper.TABLE_STATES + " ("
+                        + StateQuizDBHelper.STATES_COLUMN_NAME + ", "
+                        + StateQuizDBHelper.STATES_COLUMN_CAPITAL + ", "
+                        + StateQuizDBHelper.STATES_COLUMN_CITY2 + ", "
+                        + StateQuizDBHelper.STATES_COLUMN_CITY3 + ") VALUES (?, ?, ?, ?)");
+                db.beginTransactionNonExclusive();
+            } catch (RuntimeException e) {
+                for (SQLiteStatement statement : new SQLiteStatement[]{find, update, insert}) {
+                    if (statement != null) {
+                        statement.close();
+                    }
+                }
+                throw e;
+            }
+            findStatement = find;
+            updateStatement = update;
+            insertStatement = insert;
+            importStartNanos = System.nanoTime();
+            batchStartNanos = importStartNanos;
+        }
 
-        String whereClause = StateQuizDBHelper.QUIZ_COLUMN_ID + "=?";
-        String[] whereArgs = {String.valueOf(quizId)};
+        /**
+         * Stores one state row, updating the stored state of the same name if there is one
+         * @return database ID of the stored row
+         */
+        public long insert(String name, String capital, String city2, String city3) {
+            long id = findState(name);
+            if (id != -1) {
+                updateStatement.bindString(1, capital);
+                updateStatement.bindString(2, city2);
+                updateStatement.bindString(3, city3);
+                updateStatement.bindLong(4, id);
+                updateStatement.executeUpdateDelete();
+            } else {
+                insertStatement.bindString(1, name);
+                insertStatement.bindString(2, capital);
+                insertStatement.bindString(3, city2);
+                insertStatement.bindString(4, city3);
+                id = insertStatement.executeInsert();
+            }
+
+            if (++rowCount % IMPORT_BATCH_SIZE == 0) {
+                logBatch(IMPORT_BATCH_SIZE);
+            }
+            return id;
+        }
 
+        /**
+         * Looks up a stored state by name
+         * @return the state's ID, or -1 if no state has that name
+         */
+        private long findState(String name) {
+            findStatement.bindString(1, name);
+            try {
+                return findStatement.simpleQueryForLong();
+            } catch (SQLiteDoneException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * Marks the import to be committed by finish()
+         */
+        public void setSuccessful() {
+            successful = true;
+        }
+
+        /**
+         * Commits (if successful) or rolls back the import and releases the statement
+         * @return number of rows committed
+         */
+        public int finish() {
+            if (rowCount % IMPORT_BATCH_SIZE != 0) {
+                logBatch(rowCount % IMPORT_BATCH_SIZE);
+            }
+            try {
+                if (successful) {
+                    db.setTransactionSuccessful();
+                }
+            } finally {
+                findStatement.close();
+                updateStatement.close();
+                insertStatement.close();
+                db.endTransaction();
+                StateCatalog.invalidate();
+            }
+            long totalMs = (System.nanoTime() - importStartNanos) / 1000000;
+            Log.d(DEBUG_TAG, "State import " + (successful ? "committed " : "rolled back ")
+                    + rowCount + " rows in " + totalMs + " ms");
+            return successful ? rowCount : 0;
+        }
+
+        private void logBatch(int batchRows) {
+            long now = System.nanoTime();
+            Log.d(DEBUG_TAG, "Imported batch of " + batchRows + " states in "
+                    + (now - batchStartNanos) / 1000 + " us (" + rowCount + " total)");
+            batchStartNanos = now;
+        }
+    }
+
+    // Add this method after getQuizInProgress()
+    public void saveQuizState(long quizId, int currentQuestion, int score, String selectedAnswer) {
+        long startNanos = System.nanoTime();
+        boolean failed = false;
         try {
-            db.update(StateQuizDBHelper.TABLE_QUIZZES, values, whereClause, whereArgs);
+            db.beginTransactionNonExclusive();
+            try {
+                boolean wasComplete = isComplete(quizId);
+                SQLiteStatement statement = saveStateStatement;
+                synchronized (statement) {
+                    statement.bindLong(1, currentQuestion);
+                    statement.bindLong(2, score);
+                    bindStringOrNull(statement, 3, selectedAnswer);
+                    statement.bindLong(4, quizId);
+                    statement.executeUpdateDelete();
+                }
+                if (!wasComplete && isComplete(quizId)) {
+                    recordCompletion(quizId);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
             Log.d(DEBUG_TAG, "Saved quiz state: Question " + currentQuestion + ", Score " + score);
         } catch (Exception e) {
+            failed = true;
             Log.e(DEBUG_TAG, "Error saving quiz state: " + e.getMessage());
         }
+        record(Operation.SAVE_QUIZ_STATE, startNanos, failed);
     }
 }
@@ -0,0 +1,48 @@
+package edu.uga.cs.superfinalstatecapital;
+
+/**
+ * Receives the outcome of every QuizData database operation.
+ * Implementations are called on the background lanes, possibly from several
+ * threads at once, so they must be thread-safe and cheap.
+ * Install one with QuizData.setMetrics().
+ */
+public interface QuizDataMetrics {
+
+    /**
+     * Database operations that are measured
+     */
+    enum Operation {
+        STORE_STATE,
+        START_NEW_QUIZ,
+        STORE_QUIZ_QUESTION,
+        UPDATE_QUIZ_SCORE,
+        RETRIEVE_ALL_STATES,
+        GET_PAST_QUIZ_RESULTS,
+        GET_QUIZ_IN_PROGRESS,
+        GET_QUIZ_STATES,
+        SAVE_QUIZ_STATE,
+        STORE_ANSWERS,
+        GET_QUIZ_STATS,
+        GET_WEAKEST_STATES,
+        GET_STATE_STATS,
+        GET_QUIZ_PLAN
+    }
+
+    /**
+     * Metrics that discard everything
+     */
+    QuizDataMetrics NONE = new QuizDataMetrics() {
+        @Override
+        public void record(Operation operation, long durationNanos, boolean failed) {
+        }
+    };
+
+    /**
+     * Records one completed operation
+     *
+     * @param operation     the operation that ran
+     * @param durationNanos how long it took, in nanoseconds
+     * @param failed        whether it threw or reported an error
+     */
+    void record(Operation operation, long durationNanos, boolean failed);
+}
@@ -17,7 +17,6 @@ import androidx.core.view.GestureDetectorCompat;
 import androidx.fragment.app.Fragment;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -30,31 +29,85 @@ public class QuizFragment extends Fragment {
     private static final String DEBUG_TAG = "QuizFragment";
     private static final int QUESTIONS_PER_QUIZ = 6;
 
+    // Quiz length that asks about every state in the catalog
+    public static final int ALL_STATES = Integer.MAX_VALUE;
+
+    // Argument key for the number of questions in a new quiz
+    public static final String ARG_QUESTION_COUNT = "questionCount";
+
+    // Argument key for picking questions weighted towards weak states
+    public static final String ARG_ADAPTIVE = "adaptive";
+
     // Keys for saving instance state
-    private static final String KEY_QUIZ_STATES = "quizStates";
+    private static final String KEY_PLAN_STATE_IDS = "planStateIds";
+    private static final String KEY_PLAN_CHOICE_ORDERS = "planChoiceOrders";
     private static final String KEY_CURRENT_INDEX = "currentIndex";
     private static final String KEY_CURRENT_SCORE = "currentScore";
     private static final String KEY_QUIZ_ID = "quizId";
-    private static final String KEY_CURRENT_CHOICES = "currentChoices";
-    private static final String KEY_SELECTED_ANSWER = "selectedAnswer";
+    private static final String KEY_SELECTED_CHOICE = "selectedChoice";
 
     // Quiz data and state variables
-    private QuizData quizData;
+    private QuizRepository quizRepository;
+    private AnswerJournal answerJournal;
+    private QuizPlan quizPlan;
     private List<State> quizStates;
-    private List<String> currentChoices;
+    private final Random random = new Random();
+    // Choice codes shown by the radio buttons, in display order
+    private int[] choiceOrder;
     private int currentQuestionIndex = 0;
     private int currentScore = 0;
     private long currentQuizId;
+    private int questionCount = QUESTIONS_PER_QUIZ;
+    private boolean adaptive;
 
     // UI components
     private TextView questionTextView;
     private RadioGroup choicesRadioGroup;
-    private RadioButton choice1, choice2, choice3;
+    private RadioButton[] choiceButtons;
     private TextView progressTextView;
     private Button nextButton;
     private GestureDetectorCompat gestureDetector;
     private View quizCardView;
 
+    /**
+     * Creates a quiz fragment with a custom number of questions.
+     *
+     * @param questionCount Number of questions, or ALL_STATES; capped at the number of states.
+     * @return The new fragment.
+     */
+    public static QuizFragment newInstance(int questionCount) {
+        QuizFragment fragment = new QuizFragment();
+        Bundle args = new Bundle();
+        args.putInt(ARG_QUESTION_COUNT, questionCount);
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    /**
+     * Creates a quiz fragment whose questions favour states answered wrong
+     * often and not asked recently.
+     *
+     * @return The new fragment.
+     */
+    public static QuizFragment newAdaptiveInstance() {
+        return newAdaptiveInstance(QUESTIONS_PER_QUIZ);
+    }
+
+    /**
+     * Creates an adaptive quiz fragment with a custom number of questions.
+     *
+     * @param questionCount Number of questions, or ALL_STATES; capped at the number of states.
+     * @return The new fragment.
+     */
+    public static QuizFragment newAdaptiveInstance(int questionCount) {
+        QuizFragment fragment = new QuizFragment();
+        Bundle args = new Bundle();
+        args.putInt(ARG_QUESTION_COUNT, questionCount);
+        args.putBoolean(ARG_ADAPTIVE, true);
+        fragment.setArguments(args);
+        return fragment;
+    }
+
     /**
      * Ensures the fragment retains its state across configuration changes.
      *
@@ -64,6 +117,19 @@ public class QuizFragment extends Fragment {
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setRetainInstance(true);
+        if (getArguments() != null) {
+            questionCount = getArguments().getInt(ARG_QUESTION_COUNT, QUESTIONS_PER_QUIZ);
+            adaptive = getArguments().getBoolean(ARG_ADAPTIVE, false);
+        }
+
+        quizRepository = QuizRepository.getInstance(requireContext());
+        quizRepository.acquire();
+
+        // Created once per fragment instance so pending answers survive view recreation
+        answerJournal = new AnswerJournal(quizRepository);
+        if (savedInstanceState != null) {
+            answerJournal.restoreState(savedInstanceState);
+        }
     }
 
     /**
@@ -92,16 +158,15 @@ public class QuizFragment extends Fragment {
         // Initialize views
         questionTextView = view.findViewById(R.id.questionText);
         choicesRadioGroup = view.findViewById(R.id.choicesRadioGroup);
-        choice1 = view.findViewById(R.id.choice1);
-        choice2 = view.findViewById(R.id.choice2);
-        choice3 = view.findViewById(R.id.choice3);
+        choiceButtons = new RadioButton[]{
+                view.findViewById(R.id.choice1),
+                view.findViewById(R.id.choice2),
+                view.findViewById(R.id.choice3)
+        };
         progressTextView = view.findViewById(R.id.progressText);
         nextButton = view.findViewById(R.id.nextButton);
         quizCardView = view.findViewById(R.id.quizCard);
 
-        quizData = new QuizData(getContext());
-        quizData.open();
-
         // Set up gesture detection
         gestureDetector = new GestureDetectorCompat(getContext(), new QuizGestureListener());
         setupSwipeListener();
@@ -115,7 +180,6 @@ public class QuizFragment extends Fragment {
 
         if (savedInstanceState != null) {
             restoreQuizState(savedInstanceState);
-            displayCurrentQuestion();
         } else {
             checkForInterruptedQuiz();
         }
@@ -131,30 +195,29 @@ public class QuizFragment extends Fragment {
         new androidx.appcompat.app.AlertDialog.Builder(requireContext())
                 .setTitle("Resume Quiz")
                 .setMessage("Would you like to resume your previous quiz?")
-                .setPositiveButton("Resume", (dialog, which) -> {
-                    resumeQuiz(interruptedQuiz);
-                    displayCurrentQuestion();
-                })
-                .setNegativeButton("Start New", (dialog, which) -> {
-                    initializeQuiz();
-                    displayCurrentQuestion();
-                })
+                .setPositiveButton("Resume", (dialog, which) -> resumeQuiz(interruptedQuiz))
+                .setNegativeButton("Start New", (dialog, which) -> initializeQuiz())
                 .setCancelable(false)
                 .show();
     }
 
     /**
-     * Checks for an interrupted quiz and prompts the user to resume it.
+     * Checks for an interrupted quiz and prompts the user to resume it,
+     * otherwise starts a new quiz.
      */
     private void checkForInterruptedQuiz() {
-        QuizData.Quiz interruptedQuiz = quizData.getQuizInProgress();
-        if (interruptedQuiz != null) {
-            showResumeQuizDialog(interruptedQuiz);
-        }
+        quizRepository.getQuizInProgress(getViewLifecycleOwner(), interruptedQuiz -> {
+            if (interruptedQuiz != null) {
+                showResumeQuizDialog(interruptedQuiz);
+            } else {
+                initializeQuiz();
+            }
+        });
     }
 
     /**
-     * Resumes a previously interrupted quiz.
+     * Resumes a previously interrupted quiz from its stored plan.
+     * Quizzes started before plans were stored fall back to the states of their answers.
      *
      * @param interruptedQuiz The quiz to be resumed.
      */
@@ -162,11 +225,45 @@ public class QuizFragment extends Fragment {
         currentQuizId = interruptedQuiz.getId();
         currentScore = interruptedQuiz.getScore();
         currentQuestionIndex = interruptedQuiz.getQuestionsAnswered();
+        answerJournal.begin(currentQuizId, currentQuestionIndex, currentScore);
+
+        quizRepository.getQuizPlan(getViewLifecycleOwner(), currentQuizId, plan -> {
+            if (plan != null) {
+                showPlan(plan, -1);
+                return;
+            }
+            quizRepository.getQuizStates(getViewLifecycleOwner(), currentQuizId, states -> {
+                quizPlan = QuizPlan.forStates(states, random);
+                quizStates = states;
+                Log.d(DEBUG_TAG, "Retrieved states size: " + quizStates.size());
+                displayCurrentQuestion();
+            });
+        });
+    }
 
-        // Restore quiz states and questions
-        quizStates = quizData.getQuizStates(currentQuizId);
-        Log.d(DEBUG_TAG, "Retrieved states size: " + (quizStates != null ? quizStates.size() : "null"));
-        displayCurrentQuestion();
+    /**
+     * Looks up the states of a plan in the cached catalog and shows the current question.
+     *
+     * @param plan           The plan of the current quiz.
+     * @param selectedChoice Choice code to check again, or -1.
+     */
+    private void showPlan(QuizPlan plan, int selectedChoice) {
+        quizRepository.getStateCatalog(getViewLifecycleOwner(), catalog -> {
+            List<State> states = new ArrayList<>(plan.size());
+            for (int i = 0; i < plan.size(); i++) {
+                State state = catalog.findById(plan.getStateId(i));
+                if (state == null) {
+                    Log.e(DEBUG_TAG, "Planned state " + plan.getStateId(i) + " is no longer available");
+                    initializeQuiz();
+                    return;
+                }
+                states.add(state);
+            }
+            quizPlan = plan;
+            quizStates = states;
+            displayCurrentQuestion();
+            restoreSelectedChoice(selectedChoice);
+        });
     }
 
     /**
@@ -211,28 +308,61 @@ public class QuizFragment extends Fragment {
     }
 
     /**
-     * Initializes a new quiz by selecting random states.
+     * Initializes a new quiz by selecting random states, or in adaptive mode
+     * states weighted by past errors and recency.
+     * The first question is displayed once the quiz row has been created.
      */
     private void initializeQuiz() {
-        List<State> allStates = quizData.retrieveAllStates();
-        quizStates = new ArrayList<>();
-        Random random = new Random();
-
-        while (quizStates.size() < QUESTIONS_PER_QUIZ) {
-            State state = allStates.get(random.nextInt(allStates.size()));
-            if (!quizStates.contains(state)) {
-                quizStates.add(state);
-            }
+        if (adaptive) {
+            quizRepository.getAdaptiveSampler(getViewLifecycleOwner(), sampler ->
+                    startQuiz(sampler.getCatalog(), sampler.sample(questionCount, System.currentTimeMillis())));
+        } else {
+            quizRepository.getStateCatalog(getViewLifecycleOwner(), catalog ->
+                    startQuiz(catalog, catalog.sampleStateIds(questionCount)));
         }
-        currentQuizId = quizData.startNewQuiz();
     }
 
     /**
-     * Displays the current question and answer choices.
+     * Creates the quiz entry and its plan for the sampled states, shuffling every
+     * question's choices up front, and shows the first question.
+     * The plan's length is stored as the quiz's question count. If the quiz
+     * cannot be created, an error is shown and the previous screen restored.
+     */
+    private void startQuiz(StateCatalog catalog, long[] stateIds) {
+        if (stateIds.length == 0) {
+            Log.e(DEBUG_TAG, "No states available to start a quiz");
+            return;
+        }
+        List<State> selectedStates = new ArrayList<>(stateIds.length);
+        for (long stateId : stateIds) {
+            selectedStates.add(catalog.findById(stateId));
+        }
+        QuizPlan plan = QuizPlan.create(stateIds, random);
+        quizRepository.startNewQuiz(getViewLifecycleOwner(), plan, quizId -> {
+            if (quizId == -1) {
+                // Answers could not be stored without the quiz row, so the quiz is not started
+                Log.e(DEBUG_TAG, "Could not create the quiz, returning to the previous screen");
+                Toast.makeText(getContext(), R.string.quiz_start_failed, Toast.LENGTH_SHORT).show();
+                getParentFragmentManager().popBackStack();
+                return;
+            }
+            quizPlan = plan;
+            quizStates = selectedStates;
+            currentQuizId = quizId;
+            currentQuestionIndex = 0;
+            currentScore = 0;
+            answerJournal.begin(quizId, 0, 0);
+            displayCurrentQuestion();
+        });
+    }
+
+    /**
+     * Displays the current question and its answer choices in the planned order.
      */
     private void displayCurrentQuestion() {
         // Add null/empty check for quizStates
-        if (quizStates == null || quizStates.isEmpty() || currentQuestionIndex >= quizStates.size()) {
+        if (quizPlan == null || quizStates == null || quizStates.isEmpty()
+                || currentQuestionIndex >= quizStates.size()) {
             Log.e(DEBUG_TAG, "Invalid quiz state in displayCurrentQuestion, reinitializing");
             initializeQuiz();
             return;
@@ -241,38 +371,48 @@ public class QuizFragment extends Fragment {
         State currentState = quizStates.get(currentQuestionIndex);
         questionTextView.setText(getString(R.string.question_format, currentState.getName()));
         progressTextView.setText(getString(R.string.progress_format,
-                currentQuestionIndex + 1, QUESTIONS_PER_QUIZ));
+                currentQuestionIndex + 1, quizStates.size()));
 
-        currentChoices = new ArrayList<>();
-        currentChoices.add(currentState.getCapital());
-        currentChoices.add(currentState.getCity2());
-        currentChoices.add(currentState.getCity3());
-        Collections.shuffle(currentChoices);
-
-        // Ensure there are enough choices before setting text
-        if (currentChoices.size() > 0) choice1.setText(currentChoices.get(0));
-        if (currentChoices.size() > 1) choice2.setText(currentChoices.get(1));
-        if (currentChoices.size() > 2) choice3.setText(currentChoices.get(2));
+        choiceOrder = quizPlan.getChoiceOrder(currentQuestionIndex);
+        for (int i = 0; i < choiceButtons.length; i++) {
+            choiceButtons[i].setText(currentState.getChoice(choiceOrder[i]));
+        }
 
         choicesRadioGroup.clearCheck();
     }
 
+    /**
+     * Returns the choice code of the checked radio button, or -1 if none is checked.
+     */
+    private int getSelectedChoice() {
+        if (choiceOrder == null) {
+            return -1;
+        }
+        for (int i = 0; i < choiceButtons.length; i++) {
+            if (choiceButtons[i].isChecked()) {
+                return choiceOrder[i];
+            }
+        }
+        return -1;
+    }
+
 
     /**
      * Handles the action for moving to the next question in the quiz.
+     * The answer goes to the journal, which writes it in the background.
      */
     private void handleNextQuestion() {
-        if (choicesRadioGroup.getCheckedRadioButtonId() == -1) {
+        int answerChoice = getSelectedChoice();
+        if (answerChoice == -1) {
             Toast.makeText(getContext(), "Please select an answer", Toast.LENGTH_SHORT).show();
             return;
         }
         State currentState = quizStates.get(currentQuestionIndex);
-        RadioButton selectedButton = getView().findViewById(choicesRadioGroup.getCheckedRadioButtonId());
-        String userAnswer = selectedButton.getText().toString();
 
-        quizData.storeQuizQuestion(currentQuizId, currentState.getId(), userAnswer);
-        if (userAnswer.equals(currentState.getCapital())) currentScore++;
-        if (++currentQuestionIndex >= QUESTIONS_PER_QUIZ) {
+        boolean correct = State.isCorrectChoice(answerChoice);
+        if (correct) currentScore++;
+        answerJournal.record(currentState.getId(), answerChoice, currentScore);
+        if (++currentQuestionIndex >= quizStates.size()) {
             completeQuiz();
         } else {
             displayCurrentQuestion();
@@ -281,14 +421,16 @@ public class QuizFragment extends Fragment {
 
     /**
      * Completes the quiz and navigates to the results fragment.
+     * The final flush stores the remaining answers and the score together.
      */
     private void completeQuiz() {
-        quizData.updateQuizScore(currentQuizId, currentScore, QUESTIONS_PER_QUIZ);
+        int totalQuestions = quizStates.size();
+        answerJournal.flush();
         currentQuizId = -1;
 
         Bundle args = new Bundle();
         args.putInt("score", currentScore);
-        args.putInt("total", QUESTIONS_PER_QUIZ);
+        args.putInt("total", totalQuestions);
 
         Fragment resultFragment = new CurrentQuizResultFragment();
         resultFragment.setArguments(args);
@@ -306,28 +448,18 @@ public class QuizFragment extends Fragment {
         outState.putInt(KEY_CURRENT_INDEX, currentQuestionIndex);
         outState.putInt(KEY_CURRENT_SCORE, currentScore);
         outState.putLong(KEY_QUIZ_ID, currentQuizId);
+        answerJournal.saveState(outState);
 
-        int selectedId = choicesRadioGroup.getCheckedRadioButtonId();
-        if (selectedId != -1) {
-            RadioButton selectedButton = getView().findViewById(selectedId);
-            outState.putString(KEY_SELECTED_ANSWER, selectedButton.getText().toString());
-        }
-
-        if (currentChoices != null) {
-            outState.putStringArrayList(KEY_CURRENT_CHOICES, new ArrayList<>(currentChoices));
-        }
-
-        if (quizStates != null) {
-            ArrayList<String> stateNames = new ArrayList<>();
-            for (State state : quizStates) {
-                stateNames.add(state.getName());
-            }
-            outState.putStringArrayList(KEY_QUIZ_STATES, stateNames);
+        if (quizPlan != null) {
+            outState.putLongArray(KEY_PLAN_STATE_IDS, quizPlan.getStateIds());
+            outState.putIntArray(KEY_PLAN_CHOICE_ORDERS, quizPlan.getEncodedChoiceOrders());
+            outState.putInt(KEY_SELECTED_CHOICE, getSelectedChoice());
         }
     }
 
     /**
      * Restores the quiz state from saved instance data.
+     * The plan's states are looked up in the catalog, then the question is redisplayed.
      *
      * @param savedInstanceState Bundle containing saved state.
      */
@@ -335,50 +467,59 @@ public class QuizFragment extends Fragment {
         currentQuestionIndex = savedInstanceState.getInt(KEY_CURRENT_INDEX, 0);
         currentScore = savedInstanceState.getInt(KEY_CURRENT_SCORE, 0);
         currentQuizId = savedInstanceState.getLong(KEY_QUIZ_ID, -1);
+        int selectedChoice = savedInstanceState.getInt(KEY_SELECTED_CHOICE, -1);
 
-        ArrayList<String> stateNames = savedInstanceState.getStringArrayList(KEY_QUIZ_STATES);
-        if (stateNames != null) {
-            quizStates = new ArrayList<>();
-            List<State> allStates = quizData.retrieveAllStates();
-            for (String stateName : stateNames) {
-                for (State state : allStates) {
-                    if (state.getName().equals(stateName)) {
-                        quizStates.add(state);
-                        break;
-                    }
-                }
-            }
+        long[] planStateIds = savedInstanceState.getLongArray(KEY_PLAN_STATE_IDS);
+        int[] planChoiceOrders = savedInstanceState.getIntArray(KEY_PLAN_CHOICE_ORDERS);
+        if (planStateIds == null || planChoiceOrders == null || planStateIds.length != planChoiceOrders.length) {
+            displayCurrentQuestion();
+            return;
         }
-        currentChoices = savedInstanceState.getStringArrayList(KEY_CURRENT_CHOICES);
-        String selectedAnswer = savedInstanceState.getString(KEY_SELECTED_ANSWER);
-        if (selectedAnswer != null) {
-            for (int i = 0; i < choicesRadioGroup.getChildCount(); i++) {
-                RadioButton radioButton = (RadioButton) choicesRadioGroup.getChildAt(i);
-                if (radioButton.getText().toString().equals(selectedAnswer)) {
-                    radioButton.setChecked(true);
-                    break;
-                }
+        showPlan(new QuizPlan(planStateIds, planChoiceOrders), selectedChoice);
+    }
+
+    /**
+     * Re-checks the radio button showing a previously selected choice.
+     *
+     * @param selectedChoice Choice code of the selected answer, or -1.
+     */
+    private void restoreSelectedChoice(int selectedChoice) {
+        if (choiceOrder == null) {
+            return;
+        }
+        for (int i = 0; i < choiceButtons.length; i++) {
+            if (choiceOrder[i] == selectedChoice) {
+                choiceButtons[i].setChecked(true);
+                break;
             }
         }
     }
 
     /**
-     * Opens the quiz data when the fragment resumes.
+     * Checks for an interrupted quiz when the fragment resumes after completing one.
      */
     @Override
     public void onResume() {
         super.onResume();
         Log.d(DEBUG_TAG, "QuizFragment onResume called");
-        if (quizData != null && !quizData.isDBOpen()) quizData.open();
         if (currentQuizId == -1) checkForInterruptedQuiz();
     }
 
     /**
-     * Saves the quiz state and closes the quiz data when the fragment pauses.
+     * Flushes pending answers when the fragment pauses.
      */
     @Override
     public void onPause() {
         super.onPause();
-        if (quizData != null) quizData.close();
+        if (answerJournal != null) answerJournal.flush();
+    }
+
+    /**
+     * Releases the shared repository; queued writes still complete.
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        quizRepository.release();
     }
 }
@@ -0,0 +1,143 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The QuizPlan class holds the full question plan of one quiz, as stored in
+ * the quiz_plan table: the states asked about, in question order, and the
+ * order in which each question shows its answer choices.
+ *
+ * A choice order is a permutation of the State.CHOICE_* codes. It is stored
+ * as one integer whose base-CHOICE_COUNT digits are the codes shown first,
+ * second and third.
+ */
+public class QuizPlan {
+
+    // IDs of the states asked about, in question order
+    private final long[] stateIds;
+
+    // Encoded choice order of each question
+    private final int[] choiceOrders;
+
+    /**
+     * Constructs a QuizPlan with the specified values.
+     *
+     * @param stateIds     the state IDs, in question order
+     * @param choiceOrders the encoded choice order of each question
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public QuizPlan(long[] stateIds, int[] choiceOrders) {
+        if (stateIds.length != choiceOrders.length) {
+            throw new IllegalArgumentException("Expected one choice order per question, got "
+                    + choiceOrders.length + " for " + stateIds.length);
+        }
+        this.stateIds = stateIds;
+        this.choiceOrders = choiceOrders;
+    }
+
+    /**
+     * Creates a plan for the given states with every question's choices shuffled.
+     *
+     * @param stateIds the state IDs, in question order
+     * @param random   the source of randomness
+     * @return the new plan
+     */
+    public static QuizPlan create(long[] stateIds, Random random) {
+        int[] choiceOrders = new int[stateIds.length];
+        for (int i = 0; i < choiceOrders.length; i++) {
+            choiceOrders[i] = encodeChoiceOrder(shuffledChoiceOrder(random));
+        }
+        return new QuizPlan(stateIds, choiceOrders);
+    }
+
+    /**
+     * Creates a plan for the states of a quiz started before plans were
+     * stored, as read back from its answers, with newly shuffled choices.
+     *
+     * @param states the states, in question order
+     * @param random the source of randomness
+     * @return the new plan
+     */
+    public static QuizPlan forStates(List<State> states, Random random) {
+        long[] stateIds = new long[states.size()];
+        for (int i = 0; i < stateIds.length; i++) {
+            stateIds[i] = states.get(i).getId();
+        }
+        return create(stateIds, random);
+    }
+
+    public int size() { return stateIds.length; }
+    public long getStateId(int position) { return stateIds[position]; }
+    public int getEncodedChoiceOrder(int position) { return choiceOrders[position]; }
+
+    /**
+     * Returns a copy of the state IDs, in question order.
+     */
+    public long[] getStateIds() {
+        return stateIds.clone();
+    }
+
+    /**
+     * Returns a copy of the encoded choice orders, in question order.
+     */
+    public int[] getEncodedChoiceOrders() {
+        return choiceOrders.clone();
+    }
+
+    /**
+     * Returns the choice codes of one question, in display order.
+     *
+     * @param position the question index
+     * @return a new array of State.CHOICE_COUNT choice codes
+     */
+    public int[] getChoiceOrder(int position) {
+        return decodeChoiceOrder(choiceOrders[position]);
+    }
+
+    /**
+     * Packs a choice order into one integer.
+     *
+     * @param order the choice codes, in display order
+     * @return the encoded order
+     */
+    static int encodeChoiceOrder(int[] order) {
+        int encoded = 0;
+        for (int i = order.length - 1; i >= 0; i--) {
+            encoded = encoded * State.CHOICE_COUNT + order[i];
+        }
+        return encoded;
+    }
+
+    /**
+     * Unpacks a choice order packed by encodeChoiceOrder.
+     *
+     * @param encoded the encoded order
+     * @return the choice codes, in display order
+     */
+    static int[] decodeChoiceOrder(int encoded) {
+        int[] order = new int[State.CHOICE_COUNT];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = encoded % State.CHOICE_COUNT;
+            encoded /= State.CHOICE_COUNT;
+        }
+        return order;
+    }
+
+    /**
+     * Returns the choice codes in a random order (Fisher-Yates shuffle).
+     */
+    private static int[] shuffledChoiceOrder(Random random) {
+        int[] order = new int[State.CHOICE_COUNT];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,348 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.List;
+
+/**
+ * Asynchronous front end for QuizData. Every database call runs on an
+ * AsyncTask lane (reads on the read pool, writes on the serialized write
+ * thread) and results are delivered to a callback on the UI thread.
+ * The database itself is opened lazily on the background thread.
+ *
+ * One repository is shared by the whole process (see getInstance). Screens
+ * acquire it when created and release it when destroyed; the connection
+ * stays open across screen transitions and is only closed by
+ * closeIfUnused, when no screen holds a reference and no operation is running.
+ */
+public class QuizRepository {
+    private static final String DEBUG_TAG = "QuizRepository";
+
+    // Bump when the bundled states dataset changes; databases seeded from an
+    // older version are re-seeded in place on the next load
+    static final int STATES_DATASET_VERSION = 1;
+
+    /**
+     * Receives the result of an asynchronous operation on the UI thread
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /**
+     * Database work executed on a background lane
+     */
+    private interface Operation<T> {
+        T run(QuizData quizData);
+    }
+
+    // Process-wide instance
+    private static QuizRepository instance;
+
+    private final Context context;
+    private final QuizData quizData;
+
+    // Number of screens holding the repository plus operations running on a
+    // lane, guarded by this
+    private int references;
+
+    /**
+     * Returns the process-wide repository, creating it on first use
+     */
+    public static synchronized QuizRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new QuizRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a repository backed by a new QuizData instance
+     */
+    public QuizRepository(Context context) {
+        this(context, new QuizData(context));
+    }
+
+    /**
+     * Creates a repository backed by the given QuizData instance
+     */
+    public QuizRepository(Context context, QuizData quizData) {
+        this.context = context.getApplicationContext();
+        this.quizData = quizData;
+    }
+
+    /**
+     * Registers a user of the repository, keeping the connection open until released
+     */
+    public synchronized void acquire() {
+        references++;
+    }
+
+    /**
+     * Drops a reference taken with acquire. The connection is left open so the
+     * next screen does not pay to reopen it; see closeIfUnused.
+     */
+    public synchronized void release() {
+        if (references > 0) {
+            references--;
+        } else {
+            Log.w(DEBUG_TAG, "release() called without a matching acquire()");
+        }
+    }
+
+    /**
+     * Returns the number of references currently held, including one for each
+     * operation that is running
+     */
+    public synchronized int getReferenceCount() {
+        return references;
+    }
+
+    /**
+     * Closes the database connection on the write lane, after pending writes
+     */
+    public void close() {
+        closeOnWriteLane(false);
+    }
+
+    /**
+     * Closes the database connection on the write lane, after pending writes,
+     * if no reference is held by then. Called when the process is trimmed.
+     */
+    public void closeIfUnused() {
+        closeOnWriteLane(true);
+    }
+
+    /**
+     * Queues a close behind the pending writes
+     * @param onlyIfUnused skip the close if a reference is held when it runs
+     */
+    private void closeOnWriteLane(boolean onlyIfUnused) {
+        new AsyncTask<Void, Void>(AsyncTask.Lane.WRITE) {
+            @Override
+            protected Void doInBackground(Void... arguments) {
+                synchronized (QuizRepository.this) {
+                    if (!onlyIfUnused || references == 0) {
+                        quizData.close();
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            protected void onPostExecute(Void result) {
+            }
+        }.execute();
+    }
+
+    /**
+     * Seeds the states table from the prebuilt snapshot or, if that is
+     * unavailable, from the states CSV, unless the database records that it was
+     * already seeded from the current dataset version. Re-seeding updates
+     * states of the same name in place, so recorded answers keep their states.
+     * @param owner lifecycle the callback is bound to, or null
+     * @param callback receives true once states are available
+     */
+    public void loadStatesIfNeeded(LifecycleOwner owner, Callback<Boolean> callback) {
+        submit(AsyncTask.Lane.WRITE, owner, quizData -> {
+            if (quizData.getStatesDatasetVersion() >= STATES_DATASET_VERSION) {
+                return Boolean.TRUE;
+            }
+
+            boolean imported = StateSnapshot.readStateData(context, quizData)
+                    || CSVReader.readStateData(context, quizData);
+            if (imported) {
+                quizData.storeStatesDatasetVersion(STATES_DATASET_VERSION);
+            }
+            // After a failed re-seed the states of the older dataset remain usable
+            return quizData.hasStates();
+        }, callback);
+    }
+
+    /**
+     * Stores a new state in the database
+     */
+    public void storeState(LifecycleOwner owner, State state, Callback<State> callback) {
+        submit(AsyncTask.Lane.WRITE, owner, quizData -> quizData.storeState(state), callback);
+    }
+
+    /**
+     * Creates new quiz entry with current timestamp
+     * @param questionCount number of questions in the quiz
+     * @param callback receives the quiz ID or -1 if creation failed
+     */
+    public void startNewQuiz(LifecycleOwner owner, int questionCount, Callback<Long> callback) {
+        submit(AsyncTask.Lane.WRITE, owner, quizData -> quizData.startNewQuiz(questionCount), callback);
+    }
+
+    /**
+     * Creates new quiz entry with current timestamp and stores its question plan
+     * @param plan States and choice orders of the quiz, in question order
+     * @param callback receives the quiz ID or -1 if creation failed
+     */
+    public void startNewQuiz(LifecycleOwner owner, QuizPlan plan, Callback<Long> callback) {
+        submit(AsyncTask.Lane.WRITE, owner, quizData -> quizData.startNewQuiz(plan), callback);
+    }
+
+    /**
+     * Stores a quiz question answer
+     */
+    public void storeQuizQuestion(long quizId, long stateId, int answerChoice) {
+        submit(AsyncTask.Lane.WRITE, null, quizData -> {
+            quizData.storeQuizQuestion(quizId, stateId, answerChoice);
+            return null;
+        }, null);
+    }
+
+    /**
+     * Stores a batch of answers and the quiz progress in one transaction.
+     * The callback is not tied to a lifecycle, so it always runs once the write commits.
+     * @param callback receives the number of questions answered as stored, or -1 on error
+     */
+    public void storeAnswers(long quizId, int firstIndex, long[] stateIds, int[] answerChoices,
+                             int score, Callback<Integer> callback) {
+        submit(AsyncTask.Lane.WRITE, null,
+                quizData -> quizData.storeAnswers(quizId, firstIndex, stateIds, answerChoices, score),
+                callback);
+    }
+
+    /**
+     * Updates quiz score and progress
+     */
+    public void updateQuizScore(long quizId, int score, int questionsAnswered) {
+        submit(AsyncTask.Lane.WRITE, null, quizData -> {
+            quizData.updateQuizScore(quizId, score, questionsAnswered);
+            return null;
+        }, null);
+    }
+
+    /**
+     * Saves progress of a quiz in progress
+     */
+    public void saveQuizState(long quizId, int currentQuestion, int score, String selectedAnswer) {
+        submit(AsyncTask.Lane.WRITE, null, quizData -> {
+            quizData.saveQuizState(quizId, currentQuestion, score, selectedAnswer);
+            return null;
+        }, null);
+    }
+
+    /**
+     * Retrieves all states from database
+     */
+    public void retrieveAllStates(LifecycleOwner owner, Callback<List<State>> callback) {
+        submit(AsyncTask.Lane.READ, owner, QuizData::retrieveAllStates, callback);
+    }
+
+    /**
+     * Retrieves the cached state catalog, loading it on first use
+     */
+    public void getStateCatalog(LifecycleOwner owner, Callback<StateCatalog> callback) {
+        submit(AsyncTask.Lane.READ, owner, StateCatalog::get, callback);
+    }
+
+    /**
+     * Retrieves the cached adaptive question sampler, building it on first use
+     */
+    public void getAdaptiveSampler(LifecycleOwner owner, Callback<AdaptiveSampler> callback) {
+        submit(AsyncTask.Lane.READ, owner, AdaptiveSampler::get, callback);
+    }
+
+    /**
+     * Retrieves all past quiz results ordered by date
+     */
+    public void getPastQuizResults(LifecycleOwner owner, Callback<List<QuizResult>> callback) {
+        submit(AsyncTask.Lane.READ, owner, QuizData::getPastQuizResults, callback);
+    }
+
+    /**
+     * Retrieves one page of past quiz results, newest first
+     * @param after last result of the previous page, or null for the first page
+     */
+    public void getPastQuizResults(LifecycleOwner owner, QuizResult after, int limit,
+                                   Callback<List<QuizResult>> callback) {
+        submit(AsyncTask.Lane.READ, owner,
+                quizData -> quizData.getPastQuizResults(after, limit), callback);
+    }
+
+    /**
+     * Retrieves the aggregate statistics over all completed quizzes
+     */
+    public void getQuizStats(LifecycleOwner owner, Callback<QuizStats> callback) {
+        submit(AsyncTask.Lane.READ, owner, QuizData::getQuizStats, callback);
+    }
+
+    /**
+     * Retrieves the states answered wrong most often, weakest first
+     */
+    public void getWeakestStates(LifecycleOwner owner, int limit, Callback<List<StateAccuracy>> callback) {
+        submit(AsyncTask.Lane.READ, owner, quizData -> quizData.getWeakestStates(limit), callback);
+    }
+
+    /**
+     * Retrieves most recent incomplete quiz
+     * @param callback receives the quiz or null if no quiz in progress
+     */
+    public void getQuizInProgress(LifecycleOwner owner, Callback<QuizData.Quiz> callback) {
+        submit(AsyncTask.Lane.READ, owner, QuizData::getQuizInProgress, callback);
+    }
+
+    /**
+     * Retrieves the question plan of a quiz
+     * @param callback receives the plan or null if the quiz has none
+     */
+    public void getQuizPlan(LifecycleOwner owner, long quizId, Callback<QuizPlan> callback) {
+        submit(AsyncTask.Lane.READ, owner, quizData -> quizData.getQuizPlan(quizId), callback);
+    }
+
+    /**
+     * Retrieves states used in a specific quiz
+     */
+    public void getQuizStates(LifecycleOwner owner, long quizId, Callback<List<State>> callback) {
+        submit(AsyncTask.Lane.READ, owner, quizData -> quizData.getQuizStates(quizId), callback);
+    }
+
+    /**
+     * Takes a reference for a running operation and opens the database if needed.
+     * Holding the reference until the operation ends keeps closeIfUnused from
+     * closing the connection under a read, since reads do not run on the write lane.
+     * Called on background lanes only.
+     */
+    private synchronized void acquireOpen() {
+        if (!quizData.isDBOpen()) {
+            quizData.open();
+        }
+        // Counted only once open, so a failed open leaves no reference behind
+        references++;
+    }
+
+    /**
+     * Runs an operation on the given lane and delivers its result to the callback
+     */
+    private <T> void submit(AsyncTask.Lane lane, LifecycleOwner owner,
+                            Operation<T> operation, Callback<T> callback) {
+        AsyncTask<Void, T> task = new AsyncTask<Void, T>(lane) {
+            @Override
+            protected T doInBackground(Void... arguments) {
+                acquireOpen();
+                try {
+                    return operation.run(quizData);
+                } finally {
+                    release();
+                }
+            }
+
+            @Override
+            protected void onPostExecute(T result) {
+                if (callback != null) {
+                    callback.onResult(result);
+                }
+            }
+        };
+        if (owner != null) {
+            task.bindTo(owner);
+        }
+        task.execute();
+    }
+}
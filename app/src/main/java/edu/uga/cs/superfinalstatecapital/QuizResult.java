@@ -2,30 +2,36 @@ package edu.uga.cs.superfinalstatecapital;
 
 /**
  * The QuizResult class represents the result of a single quiz.
- * Each result includes an ID, the date the quiz was taken, and the score achieved.
+ * Each result includes an ID, the date the quiz was taken, the score achieved
+ * and the number of questions in the quiz.
  */
 public class QuizResult {
 
     // Unique identifier for the quiz result
     private long id;
 
-    // Date the quiz was taken
-    private String date;
+    // Time the quiz was taken, in epoch milliseconds
+    private long timestamp;
 
     // Score achieved in the quiz
     private int score;
 
+    // Number of questions in the quiz
+    private int questionCount;
+
     /**
      * Constructs a QuizResult with the specified values.
      *
-     * @param id    the unique identifier for the quiz result
-     * @param date  the date the quiz was taken
-     * @param score the score achieved in the quiz
+     * @param id            the unique identifier for the quiz result
+     * @param timestamp     the time the quiz was taken, in epoch milliseconds
+     * @param score         the score achieved in the quiz
+     * @param questionCount the number of questions in the quiz
      */
-    public QuizResult(long id, String date, int score) {
+    public QuizResult(long id, long timestamp, int score, int questionCount) {
         this.id = id;
-        this.date = date;
+        this.timestamp = timestamp;
         this.score = score;
+        this.questionCount = questionCount;
     }
 
     /**
@@ -38,12 +44,12 @@ public class QuizResult {
     }
 
     /**
-     * Returns the date the quiz was taken.
+     * Returns the time the quiz was taken.
      *
-     * @return the date of the quiz
+     * @return the time of the quiz, in epoch milliseconds
      */
-    public String getDate() {
-        return date;
+    public long getTimestamp() {
+        return timestamp;
     }
 
     /**
@@ -54,4 +60,42 @@ public class QuizResult {
     public int getScore() {
         return score;
     }
+
+    /**
+     * Returns the number of questions in the quiz.
+     *
+     * @return the question count of the quiz
+     */
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    /**
+     * Compares quiz results by ID, date, score and question count.
+     *
+     * @param o the object to compare with
+     * @return true if both describe the same quiz with the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuizResult)) return false;
+        QuizResult other = (QuizResult) o;
+        return id == other.id && timestamp == other.timestamp && score == other.score
+                && questionCount == other.questionCount;
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = (int) (id ^ (id >>> 32));
+        result = 31 * result + (int) (timestamp ^ (timestamp >>> 32));
+        result = 31 * result + score;
+        result = 31 * result + questionCount;
+        return result;
+    }
 }
@@ -0,0 +1,89 @@
+package edu.uga.cs.superfinalstatecapital;
+
+/**
+ * The QuizStats class holds aggregate statistics over all completed quizzes.
+ * It is read from the quiz_stats table, which QuizData keeps up to date as
+ * each quiz completes, so loading it costs the same for any history size.
+ * A streak is a run of consecutive completed quizzes with a perfect score.
+ */
+public class QuizStats {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    // Statistics with no completed quiz
+    public static final QuizStats EMPTY = new QuizStats(0, 0, 0, 0, 0, 0, 0, 0);
+
+    // Number of completed quizzes
+    private final int completedCount;
+
+    // Sum of the scores and of the question counts of completed quizzes
+    private final long totalScore;
+    private final long totalQuestions;
+
+    // Number of completed quizzes answered without a mistake
+    private final int perfectCount;
+
+    // Perfect quizzes in a row, ending with the latest one, and the longest such run
+    private final int currentStreak;
+    private final int bestStreak;
+
+    // Completion time of the first and latest quiz, in epoch milliseconds
+    private final long firstCompletedAt;
+    private final long lastCompletedAt;
+
+    /**
+     * Constructs QuizStats with the specified values.
+     *
+     * @param completedCount   the number of completed quizzes
+     * @param totalScore       the sum of their scores
+     * @param totalQuestions   the sum of their question counts
+     * @param perfectCount     the number of perfect quizzes
+     * @param currentStreak    the current run of perfect quizzes
+     * @param bestStreak       the longest run of perfect quizzes
+     * @param firstCompletedAt the completion time of the first quiz, in epoch milliseconds
+     * @param lastCompletedAt  the completion time of the latest quiz, in epoch milliseconds
+     */
+    public QuizStats(int completedCount, long totalScore, long totalQuestions, int perfectCount,
+                     int currentStreak, int bestStreak, long firstCompletedAt, long lastCompletedAt) {
+        this.completedCount = completedCount;
+        this.totalScore = totalScore;
+        this.totalQuestions = totalQuestions;
+        this.perfectCount = perfectCount;
+        this.currentStreak = currentStreak;
+        this.bestStreak = bestStreak;
+        this.firstCompletedAt = firstCompletedAt;
+        this.lastCompletedAt = lastCompletedAt;
+    }
+
+    public int getCompletedCount() { return completedCount; }
+    public long getTotalScore() { return totalScore; }
+    public long getTotalQuestions() { return totalQuestions; }
+    public int getPerfectCount() { return perfectCount; }
+    public int getCurrentStreak() { return currentStreak; }
+    public int getBestStreak() { return bestStreak; }
+    public long getFirstCompletedAt() { return firstCompletedAt; }
+    public long getLastCompletedAt() { return lastCompletedAt; }
+
+    /**
+     * Returns the share of questions answered correctly, in percent.
+     *
+     * @return the average score in percent, or 0 if no quiz was completed
+     */
+    public int getAverageScorePercent() {
+        return totalQuestions == 0 ? 0 : (int) Math.round(totalScore * 100.0 / totalQuestions);
+    }
+
+    /**
+     * Returns the number of quizzes completed per day, counting every day
+     * from the first completed quiz to the latest one.
+     *
+     * @return the average number of quizzes per day
+     */
+    public double getQuizzesPerDay() {
+        if (completedCount == 0) {
+            return 0;
+        }
+        long days = (lastCompletedAt - firstCompletedAt) / MILLIS_PER_DAY + 1;
+        return (double) completedCount / days;
+    }
+}
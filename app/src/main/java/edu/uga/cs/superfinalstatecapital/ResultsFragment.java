@@ -5,11 +5,11 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import java.util.List;
 
 /**
  * ResultsFragment is a Fragment that displays a list of past quiz results
@@ -18,8 +18,17 @@ import java.util.List;
  */
 public class ResultsFragment extends Fragment {
 
-    // Database helper for quiz data
-    private QuizData quizData;
+    // Number of results loaded per page
+    private static final int PAGE_SIZE = 30;
+
+    // Load the next page when this close to the end of the list
+    private static final int PREFETCH_DISTANCE = 10;
+
+    // Number of weakest states listed in the header
+    private static final int WEAKEST_STATES_SHOWN = 3;
+
+    // Async access to quiz data
+    private QuizRepository quizRepository;
 
     // RecyclerView for displaying quiz results
     private RecyclerView recyclerView;
@@ -27,6 +36,29 @@ public class ResultsFragment extends Fragment {
     // Adapter for the RecyclerView
     private ResultsRecyclerAdapter recyclerAdapter;
 
+    // Placeholder shown while loading or when there are no results
+    private TextView emptyText;
+
+    // Header summarizing all completed quizzes and the weakest states
+    private TextView statsText;
+    private TextView weakestText;
+
+    // Paging state
+    private boolean loadingPage;
+    private boolean allPagesLoaded;
+
+    /**
+     * Acquires the shared repository for the lifetime of the fragment.
+     *
+     * @param savedInstanceState the saved state of the fragment
+     */
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        quizRepository = QuizRepository.getInstance(requireContext());
+        quizRepository.acquire();
+    }
+
     /**
      * Inflates the fragment layout.
      *
@@ -54,7 +86,8 @@ public class ResultsFragment extends Fragment {
 
         // Set up the RecyclerView
         recyclerView = view.findViewById(R.id.recyclerView);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getActivity()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getActivity());
+        recyclerView.setLayoutManager(layoutManager);
 
         // Set up navigation buttons
         Button newQuizButton = view.findViewById(R.id.newQuizButton);
@@ -76,35 +109,112 @@ public class ResultsFragment extends Fragment {
                     .commit();
         });
 
-        // Initialize quiz data and load results
-        quizData = new QuizData(getActivity());
-        quizData.open();
-
-        // Load quiz results into the RecyclerView
-        List<QuizResult> results = quizData.getPastQuizResults();
-        recyclerAdapter = new ResultsRecyclerAdapter(getActivity(), results);
+        // Show an empty list with a loading placeholder until results arrive
+        emptyText = view.findViewById(R.id.emptyText);
+        statsText = view.findViewById(R.id.statsText);
+        weakestText = view.findViewById(R.id.weakestText);
+        recyclerAdapter = new ResultsRecyclerAdapter(getActivity());
         recyclerView.setAdapter(recyclerAdapter);
+
+        // Load further pages as the user scrolls near the end of the list
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (layoutManager.findLastVisibleItemPosition()
+                        >= recyclerAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        // Load the first page of quiz results in the background
+        loadingPage = false;
+        allPagesLoaded = false;
+        loadNextPage();
     }
 
     /**
-     * Ensures the database connection is open when the fragment is resumed.
+     * Refreshes the stats header and reloads the results already on screen when
+     * returning to the fragment, so a newly completed quiz is inserted and changed
+     * rows are rebound. One row more than is shown is reloaded, so the oldest row
+     * stays in the list when a quiz is added; a full reload means further rows
+     * may remain, and paging resumes after it.
      */
     @Override
     public void onResume() {
         super.onResume();
-        if (quizData != null && !quizData.isDBOpen()) {
-            quizData.open();
+        loadStats();
+        int loaded = recyclerAdapter.getItemCount();
+        if (loaded == 0 || loadingPage) {
+            return;
         }
+        loadingPage = true;
+        int limit = Math.max(loaded + 1, PAGE_SIZE);
+        quizRepository.getPastQuizResults(getViewLifecycleOwner(), null, limit, results -> {
+            allPagesLoaded = results.size() < limit;
+            recyclerAdapter.submitList(results, () -> loadingPage = false);
+        });
     }
 
     /**
-     * Closes the database connection when the fragment is paused.
+     * Loads the precomputed quiz statistics and weakest states into the header.
      */
-    @Override
-    public void onPause() {
-        super.onPause();
-        if (quizData != null) {
-            quizData.close();
+    private void loadStats() {
+        quizRepository.getQuizStats(getViewLifecycleOwner(), stats -> {
+            if (stats.getCompletedCount() == 0) {
+                statsText.setVisibility(View.GONE);
+                return;
+            }
+            statsText.setText(getString(R.string.stats_format, stats.getCompletedCount(),
+                    stats.getAverageScorePercent(), stats.getBestStreak(), stats.getQuizzesPerDay()));
+            statsText.setVisibility(View.VISIBLE);
+        });
+        quizRepository.getWeakestStates(getViewLifecycleOwner(), WEAKEST_STATES_SHOWN, weakest -> {
+            if (weakest.isEmpty()) {
+                weakestText.setVisibility(View.GONE);
+                return;
+            }
+            StringBuilder states = new StringBuilder();
+            for (StateAccuracy accuracy : weakest) {
+                if (states.length() > 0) {
+                    states.append(", ");
+                }
+                states.append(getString(R.string.state_accuracy_format,
+                        accuracy.getStateName(), accuracy.getAccuracyPercent()));
+            }
+            weakestText.setText(getString(R.string.weakest_format, states));
+            weakestText.setVisibility(View.VISIBLE);
+        });
+    }
+
+    /**
+     * Loads the page of quiz results following the last one displayed.
+     */
+    private void loadNextPage() {
+        if (loadingPage || allPagesLoaded) {
+            return;
         }
+        loadingPage = true;
+        QuizResult after = recyclerAdapter.getLastQuizResult();
+        quizRepository.getPastQuizResults(getViewLifecycleOwner(), after, PAGE_SIZE, page -> {
+            allPagesLoaded = page.size() < PAGE_SIZE;
+            recyclerAdapter.appendQuizResults(page, () -> {
+                loadingPage = false;
+                if (recyclerAdapter.getItemCount() == 0) {
+                    emptyText.setText(R.string.no_results);
+                } else {
+                    emptyText.setVisibility(View.GONE);
+                }
+            });
+        });
+    }
+
+    /**
+     * Releases the shared repository; the connection itself stays open.
+     */
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        quizRepository.release();
     }
 }
@@ -1,36 +1,113 @@
 package edu.uga.cs.superfinalstatecapital;
 
 import android.content.Context;
+import android.util.LongSparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * ResultsRecyclerAdapter is a RecyclerView adapter that binds a list of QuizResult objects
  * to views displayed in a RecyclerView. It provides a convenient way to display quiz results
  * with date and score information.
+ * New lists are diffed against the current one on a background thread, so only
+ * inserted, removed or changed rows are rebound.
  */
-public class ResultsRecyclerAdapter extends RecyclerView.Adapter<ResultsRecyclerAdapter.QuizResultHolder> {
+public class ResultsRecyclerAdapter extends ListAdapter<QuizResult, ResultsRecyclerAdapter.QuizResultHolder> {
 
-    // List of quiz results to display
-    private List<QuizResult> quizResults;
+    // Number of formatted dates kept before the cache is cleared
+    private static final int MAX_CACHED_DATES = 512;
+
+    // Identifies rows by quiz ID and compares their contents by value
+    private static final DiffUtil.ItemCallback<QuizResult> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<QuizResult>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull QuizResult oldItem, @NonNull QuizResult newItem) {
+                    return oldItem.getId() == newItem.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull QuizResult oldItem, @NonNull QuizResult newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
 
     // Application context
     private Context context;
 
+    // Display formatter for quiz dates; only used on the UI thread
+    private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+
+    // Reused Date passed to the formatter
+    private final Date date = new Date();
+
+    // Formatted dates by quiz timestamp, so scrolling back over rows formats nothing
+    private final LongSparseArray<String> dateLabels = new LongSparseArray<>();
+
+    // Shared "Score: x/y" labels
+    private final ScoreLabels scoreLabels = new ScoreLabels();
+
     /**
      * Constructor for the ResultsRecyclerAdapter.
      *
-     * @param context     the application context
-     * @param quizResults the list of quiz results to display
+     * @param context the application context
      */
-    public ResultsRecyclerAdapter(Context context, List<QuizResult> quizResults) {
+    public ResultsRecyclerAdapter(Context context) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(AsyncTask.getExecutor(AsyncTask.Lane.READ))
+                .build());
         this.context = context;
-        this.quizResults = quizResults;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Appends a page of quiz results to the end of the list.
+     *
+     * @param page        the quiz results to append
+     * @param onCommitted run once the new list is displayed
+     */
+    public void appendQuizResults(List<QuizResult> page, Runnable onCommitted) {
+        if (page.isEmpty()) {
+            onCommitted.run();
+            return;
+        }
+        List<QuizResult> quizResults = new ArrayList<>(getCurrentList().size() + page.size());
+        quizResults.addAll(getCurrentList());
+        quizResults.addAll(page);
+        submitList(quizResults, onCommitted);
+    }
+
+    /**
+     * Returns the last quiz result currently in the list.
+     *
+     * @return the last quiz result, or null if the list is empty
+     */
+    public QuizResult getLastQuizResult() {
+        List<QuizResult> quizResults = getCurrentList();
+        return quizResults.isEmpty() ? null : quizResults.get(quizResults.size() - 1);
+    }
+
+    /**
+     * Returns the quiz ID of the item at a position, used as its stable ID.
+     *
+     * @param position the position of the item
+     * @return the quiz ID
+     */
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     /**
@@ -44,6 +121,10 @@ public class ResultsRecyclerAdapter extends RecyclerView.Adapter<ResultsRecycler
         // TextView to display the score of the quiz
         TextView scoreText;
 
+        // Labels currently shown, so an unchanged row is not laid out again
+        String boundDate;
+        String boundScore;
+
         /**
          * Constructor for the QuizResultHolder.
          *
@@ -73,28 +154,47 @@ public class ResultsRecyclerAdapter extends RecyclerView.Adapter<ResultsRecycler
 
     /**
      * Binds data to the views in the ViewHolder for a specific position.
+     * Labels come from caches, so a bind during a fling allocates nothing
+     * once the rows have been seen.
      *
      * @param holder   the ViewHolder for the current item
      * @param position the position of the item in the data set
      */
     @Override
     public void onBindViewHolder(QuizResultHolder holder, int position) {
-        QuizResult result = quizResults.get(position);
+        QuizResult result = getItem(position);
 
         // Set the date of the quiz
-        holder.dateText.setText(result.getDate());
+        String dateLabel = getDateLabel(result.getTimestamp());
+        if (dateLabel != holder.boundDate) {
+            holder.dateText.setText(dateLabel);
+            holder.boundDate = dateLabel;
+        }
 
         // Set the score of the quiz
-        holder.scoreText.setText(String.format("Score: %d/6", result.getScore()));
+        String scoreLabel = scoreLabels.get(result.getScore(), result.getQuestionCount());
+        if (scoreLabel != holder.boundScore) {
+            holder.scoreText.setText(scoreLabel);
+            holder.boundScore = scoreLabel;
+        }
     }
 
     /**
-     * Returns the total number of items in the data set.
+     * Returns the formatted date for a timestamp, formatting it on first use.
      *
-     * @return the size of the quiz results list
+     * @param timestamp the time in epoch milliseconds
+     * @return the formatted date
      */
-    @Override
-    public int getItemCount() {
-        return quizResults.size();
+    private String getDateLabel(long timestamp) {
+        String label = dateLabels.get(timestamp);
+        if (label == null) {
+            if (dateLabels.size() >= MAX_CACHED_DATES) {
+                dateLabels.clear();
+            }
+            date.setTime(timestamp);
+            label = dateFormat.format(date);
+            dateLabels.put(timestamp, label);
+        }
+        return label;
     }
 }
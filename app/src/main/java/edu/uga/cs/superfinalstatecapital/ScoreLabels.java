@@ -0,0 +1,53 @@
+package edu.uga.cs.superfinalstatecapital;
+
+/**
+ * ScoreLabels builds "Score: x/y" labels for quiz results and keeps them,
+ * so binding a result row reuses the same String instead of formatting a new one.
+ * Labels for totals up to MAX_CACHED_TOTAL are cached; larger totals are built
+ * with a reused StringBuilder. Not thread-safe; used from the UI thread.
+ */
+public class ScoreLabels {
+
+    // Largest quiz length whose labels are cached
+    static final int MAX_CACHED_TOTAL = 50;
+
+    private static final String PREFIX = "Score: ";
+
+    // Cached labels indexed by [total][score], rows created on first use
+    private final String[][] labels = new String[MAX_CACHED_TOTAL + 1][];
+
+    // Reused buffer for building labels
+    private final StringBuilder builder = new StringBuilder(16);
+
+    /**
+     * Returns the label for a score.
+     *
+     * @param score the score achieved
+     * @param total the number of questions in the quiz
+     * @return the label, the same instance on every call for cached totals
+     */
+    public String get(int score, int total) {
+        if (total < 0 || total > MAX_CACHED_TOTAL || score < 0 || score > total) {
+            return build(score, total);
+        }
+        String[] row = labels[total];
+        if (row == null) {
+            row = new String[total + 1];
+            labels[total] = row;
+        }
+        String label = row[score];
+        if (label == null) {
+            label = build(score, total);
+            row[score] = label;
+        }
+        return label;
+    }
+
+    /**
+     * Builds a label without parsing a format string or boxing the values.
+     */
+    private String build(int score, int total) {
+        builder.setLength(0);
+        return builder.append(PREFIX).append(score).append('/').append(total).toString();
+    }
+}
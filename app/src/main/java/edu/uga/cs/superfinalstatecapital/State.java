@@ -6,6 +6,12 @@ package edu.uga.cs.superfinalstatecapital;
  */
 public class State {
 
+    // Answer choice codes: which of the state's cities was picked
+    public static final int CHOICE_CAPITAL = 0;
+    public static final int CHOICE_CITY2 = 1;
+    public static final int CHOICE_CITY3 = 2;
+    public static final int CHOICE_COUNT = 3;
+
     // Instance variables
     private long id; // Unique identifier for the state
     private String name; // Name of the state
@@ -136,6 +142,36 @@ public class State {
         this.city3 = city3;
     }
 
+    /**
+     * Gets the city for an answer choice code.
+     *
+     * @param choice one of CHOICE_CAPITAL, CHOICE_CITY2 or CHOICE_CITY3
+     * @return the city for the choice
+     * @throws IllegalArgumentException if the code is not a valid choice
+     */
+    public String getChoice(int choice) {
+        switch (choice) {
+            case CHOICE_CAPITAL:
+                return getCapital();
+            case CHOICE_CITY2:
+                return getCity2();
+            case CHOICE_CITY3:
+                return getCity3();
+            default:
+                throw new IllegalArgumentException("Invalid choice: " + choice);
+        }
+    }
+
+    /**
+     * Checks whether an answer choice code is the capital.
+     *
+     * @param choice the answer choice code
+     * @return true if the choice is the capital
+     */
+    public static boolean isCorrectChoice(int choice) {
+        return choice == CHOICE_CAPITAL;
+    }
+
     /**
      * Returns a string representation of the state.
      *
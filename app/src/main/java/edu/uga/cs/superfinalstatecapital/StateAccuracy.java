@@ -0,0 +1,51 @@
+package edu.uga.cs.superfinalstatecapital;
+
+/**
+ * The StateAccuracy class holds how often the capital of one state was
+ * asked and answered correctly, as rolled up in the state_stats table.
+ */
+public class StateAccuracy {
+
+    // ID and name of the state
+    private final long stateId;
+    private final String stateName;
+
+    // Number of times the state was asked, and answered correctly
+    private final int askedCount;
+    private final int correctCount;
+
+    // Time the state was last asked, in epoch milliseconds
+    private final long lastAskedAt;
+
+    /**
+     * Constructs a StateAccuracy with the specified values.
+     *
+     * @param stateId      the ID of the state
+     * @param stateName    the name of the state, or null if not loaded
+     * @param askedCount   the number of times the state was asked
+     * @param correctCount the number of correct answers
+     * @param lastAskedAt  the time the state was last asked, in epoch milliseconds
+     */
+    public StateAccuracy(long stateId, String stateName, int askedCount, int correctCount, long lastAskedAt) {
+        this.stateId = stateId;
+        this.stateName = stateName;
+        this.askedCount = askedCount;
+        this.correctCount = correctCount;
+        this.lastAskedAt = lastAskedAt;
+    }
+
+    public long getStateId() { return stateId; }
+    public String getStateName() { return stateName; }
+    public int getAskedCount() { return askedCount; }
+    public int getCorrectCount() { return correctCount; }
+    public long getLastAskedAt() { return lastAskedAt; }
+
+    /**
+     * Returns the share of correct answers for the state, in percent.
+     *
+     * @return the accuracy in percent, or 0 if the state was never asked
+     */
+    public int getAccuracyPercent() {
+        return askedCount == 0 ? 0 : Math.round(correctCount * 100f / askedCount);
+    }
+}
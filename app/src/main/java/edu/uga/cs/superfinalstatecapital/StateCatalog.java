@@ -0,0 +1,143 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide, read-only snapshot of the states table.
+ * Loaded once from QuizData and indexed by ID and by name; QuizData
+ * invalidates it whenever states are stored or re-imported.
+ * The State objects it hands out are shared and must not be modified.
+ */
+public final class StateCatalog {
+    private static final String DEBUG_TAG = "StateCatalog";
+
+    // Cached catalog and a counter bumped by every invalidation
+    private static volatile StateCatalog instance;
+    private static int generation;
+
+    private final List<State> states;
+    private final long[] stateIds;
+    private final Map<Long, State> statesById;
+    private final Map<String, State> statesByName;
+
+    // Sampler over the state IDs, built on the first draw and guarded by this
+    private QuestionSampler sampler;
+
+    StateCatalog(List<State> states) {
+        this.states = Collections.unmodifiableList(states);
+        statesById = new HashMap<>(states.size() * 2);
+        statesByName = new HashMap<>(states.size() * 2);
+        stateIds = new long[states.size()];
+        for (int i = 0; i < stateIds.length; i++) {
+            State state = states.get(i);
+            stateIds[i] = state.getId();
+            statesById.put(state.getId(), state);
+            statesByName.put(state.getName(), state);
+        }
+    }
+
+    /**
+     * Returns the cached catalog, loading it from the database on first use.
+     * Must be called off the UI thread.
+     *
+     * @param quizData open database access used to load the catalog
+     * @return the state catalog
+     */
+    public static StateCatalog get(QuizData quizData) {
+        StateCatalog catalog = instance;
+        if (catalog != null) {
+            return catalog;
+        }
+
+        int loadGeneration;
+        synchronized (StateCatalog.class) {
+            loadGeneration = generation;
+        }
+        catalog = new StateCatalog(quizData.retrieveAllStates());
+
+        synchronized (StateCatalog.class) {
+            // Only publish if nothing changed the table while loading
+            if (generation == loadGeneration && !catalog.states.isEmpty()) {
+                instance = catalog;
+            }
+        }
+        Log.d(DEBUG_TAG, "Loaded catalog of " + catalog.size() + " states");
+        return catalog;
+    }
+
+    /**
+     * Drops the cached catalog so the next get() reloads it
+     */
+    public static void invalidate() {
+        synchronized (StateCatalog.class) {
+            generation++;
+            instance = null;
+        }
+    }
+
+    /**
+     * Returns all states in table order
+     *
+     * @return unmodifiable list of states
+     */
+    public List<State> getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the IDs of all states in table order
+     *
+     * @return a new array of state IDs
+     */
+    public long[] getStateIds() {
+        return stateIds.clone();
+    }
+
+    /**
+     * Draws distinct state IDs for a new quiz. The sampler is built once per
+     * catalog, so a draw copies no more than the IDs it returns.
+     *
+     * @param count number of states wanted
+     * @return array of min(count, size()) distinct state IDs, in random order
+     */
+    public synchronized long[] sampleStateIds(int count) {
+        if (sampler == null) {
+            sampler = new QuestionSampler(stateIds);
+        }
+        return sampler.sample(count);
+    }
+
+    /**
+     * Looks up a state by database ID
+     *
+     * @param id the state ID
+     * @return the state, or null if not found
+     */
+    public State findById(long id) {
+        return statesById.get(id);
+    }
+
+    /**
+     * Looks up a state by name
+     *
+     * @param name the state name
+     * @return the state, or null if not found
+     */
+    public State findByName(String name) {
+        return statesByName.get(name);
+    }
+
+    /**
+     * Returns the number of states in the catalog
+     *
+     * @return the number of states
+     */
+    public int size() {
+        return states.size();
+    }
+}
@@ -0,0 +1,25 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+
+/**
+ * Application class for the State Capitals Quiz app.
+ * Screens share the process-wide QuizRepository, so the database connection
+ * lives for the process rather than for a single screen; this class closes
+ * it when the process is in the background and no screen is using it.
+ */
+public class StateQuizApplication extends Application {
+
+    /**
+     * Releases the database connection once the app is in the background
+     * and no screen holds the repository.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            QuizRepository.getInstance(this).closeIfUnused();
+        }
+    }
+}
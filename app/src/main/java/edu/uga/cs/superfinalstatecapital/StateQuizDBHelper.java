@@ -1,6 +1,7 @@
 package edu.uga.cs.superfinalstatecapital;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
@@ -17,7 +18,7 @@ public class StateQuizDBHelper extends SQLiteOpenHelper {
 
     // Database name and version
     private static final String DB_NAME = "statequiz.db";
-    private static final int DB_VERSION = 2; // Updated version number for schema changes
+    private static final int DB_VERSION = 10; // Version 10 records the seeded states dataset version
 
     // Table and column names for "states" table
     public static final String TABLE_STATES = "states";
@@ -30,23 +31,88 @@ public class StateQuizDBHelper extends SQLiteOpenHelper {
     // Table and column names for "quizzes" table
     public static final String TABLE_QUIZZES = "quizzes";
     public static final String QUIZ_COLUMN_ID = "_id";
-    public static final String QUIZ_COLUMN_DATE = "date";
+    public static final String QUIZ_COLUMN_TIMESTAMP = "timestamp"; // Epoch milliseconds
+    public static final String QUIZ_COLUMN_LEGACY_DATE = "date";    // Formatted text, before version 4
     public static final String QUIZ_COLUMN_SCORE = "score";
     public static final String QUIZ_COLUMN_QUESTIONS_ANSWERED = "questions_answered";
     public static final String QUIZ_COLUMN_LAST_ANSWER = "last_answer"; // Newly added column
+    public static final String QUIZ_COLUMN_QUESTION_COUNT = "question_count";
+
+    // Quizzes created before version 5 always had this many questions
+    static final int LEGACY_QUESTION_COUNT = 6;
 
     // Table and column names for "quiz_questions" table
     public static final String TABLE_QUIZ_QUESTIONS = "quiz_questions";
     public static final String QUESTION_COLUMN_ID = "_id";
     public static final String QUESTION_COLUMN_QUIZ_ID = "quiz_id";
     public static final String QUESTION_COLUMN_STATE_ID = "state_id";
-    public static final String QUESTION_COLUMN_USER_ANSWER = "user_answer";
+    public static final String QUESTION_COLUMN_ANSWER_CHOICE = "answer_choice"; // State.CHOICE_* code
+    public static final String QUESTION_COLUMN_LEGACY_USER_ANSWER = "user_answer"; // Answer text, before version 8
+
+    // Table and column names for "quiz_stats" table, a single row of aggregates
+    // over completed quizzes maintained by QuizData
+    public static final String TABLE_QUIZ_STATS = "quiz_stats";
+    public static final String STATS_COLUMN_ID = "_id";
+    public static final String STATS_COLUMN_COMPLETED_COUNT = "completed_count";
+    public static final String STATS_COLUMN_TOTAL_SCORE = "total_score";
+    public static final String STATS_COLUMN_TOTAL_QUESTIONS = "total_questions";
+    public static final String STATS_COLUMN_PERFECT_COUNT = "perfect_count";
+    public static final String STATS_COLUMN_CURRENT_STREAK = "current_streak";
+    public static final String STATS_COLUMN_BEST_STREAK = "best_streak";
+    public static final String STATS_COLUMN_FIRST_COMPLETED_AT = "first_completed_at";
+    public static final String STATS_COLUMN_LAST_COMPLETED_AT = "last_completed_at";
+
+    // ID of the only quiz_stats row
+    static final long STATS_ROW_ID = 1;
+
+    // Table and column names for "state_stats" table, one row of answer
+    // counts per state asked about, maintained by QuizData
+    public static final String TABLE_STATE_STATS = "state_stats";
+    public static final String STATE_STATS_COLUMN_STATE_ID = "state_id";
+    public static final String STATE_STATS_COLUMN_ASKED_COUNT = "asked_count";
+    public static final String STATE_STATS_COLUMN_CORRECT_COUNT = "correct_count";
+    public static final String STATE_STATS_COLUMN_LAST_ASKED_AT = "last_asked_at"; // Epoch milliseconds
+
+    // Table and column names for "quiz_plan" table, the ordered questions of
+    // each quiz written when it starts, keyed by quiz and question position
+    public static final String TABLE_QUIZ_PLAN = "quiz_plan";
+    public static final String PLAN_COLUMN_QUIZ_ID = "quiz_id";
+    public static final String PLAN_COLUMN_POSITION = "position";
+    public static final String PLAN_COLUMN_STATE_ID = "state_id";
+    public static final String PLAN_COLUMN_CHOICE_ORDER = "choice_order"; // Encoded by QuizPlan
+
+    // Table and column names for "metadata" table, integer values about the
+    // database contents keyed by name
+    public static final String TABLE_METADATA = "metadata";
+    public static final String METADATA_COLUMN_KEY = "key";
+    public static final String METADATA_COLUMN_VALUE = "value";
+
+    // Metadata key of the states dataset version the states table was seeded from
+    public static final String METADATA_KEY_STATES_DATASET_VERSION = "states_dataset_version";
+
+    // Name the answers table is moved to while it is rebuilt
+    private static final String TABLE_LEGACY_QUIZ_QUESTIONS = "quiz_questions_legacy";
+
+    // An answer is correct when its choice is the capital
+    static final String QUESTION_IS_CORRECT = QUESTION_COLUMN_ANSWER_CHOICE + " = " + State.CHOICE_CAPITAL;
+
+    // Index names
+    public static final String INDEX_QUESTIONS_QUIZ_ID = "idx_quiz_questions_quiz_id";
+    public static final String INDEX_QUESTIONS_STATE_ID = "idx_quiz_questions_state_id";
+    public static final String INDEX_QUIZZES_LEGACY_DATE = "idx_quizzes_date";
+    public static final String INDEX_QUIZZES_TIMESTAMP = "idx_quizzes_timestamp";
+    public static final String INDEX_QUIZZES_QUESTIONS_ANSWERED = "idx_quizzes_questions_answered";
+    public static final String INDEX_QUIZZES_IN_PROGRESS = "idx_quizzes_in_progress";
+    public static final String INDEX_STATES_NAME = "idx_states_name";
+
+    // Connection tuning: page cache size in KiB (negative means KiB in SQLite)
+    private static final int CACHE_SIZE_KIB = 2048;
 
     // Singleton instance
     private static StateQuizDBHelper helperInstance;
 
     // SQL statement to create "states" table
-    private static final String CREATE_STATES =
+    static final String CREATE_STATES =
             "CREATE TABLE " + TABLE_STATES + " ("
                     + STATES_COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + STATES_COLUMN_NAME + " TEXT, "
@@ -56,26 +122,108 @@ public class StateQuizDBHelper extends SQLiteOpenHelper {
                     + ")";
 
     // SQL statement to create "quizzes" table
-    private static final String CREATE_QUIZZES =
+    static final String CREATE_QUIZZES =
             "CREATE TABLE " + TABLE_QUIZZES + " ("
                     + QUIZ_COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
-                    + QUIZ_COLUMN_DATE + " TEXT, "
+                    + QUIZ_COLUMN_TIMESTAMP + " INTEGER, "
                     + QUIZ_COLUMN_SCORE + " INTEGER, "
                     + QUIZ_COLUMN_QUESTIONS_ANSWERED + " INTEGER, "
-                    + QUIZ_COLUMN_LAST_ANSWER + " TEXT"
+                    + QUIZ_COLUMN_LAST_ANSWER + " TEXT, "
+                    + QUIZ_COLUMN_QUESTION_COUNT + " INTEGER NOT NULL DEFAULT " + LEGACY_QUESTION_COUNT
                     + ")";
 
     // SQL statement to create "quiz_questions" table
-    private static final String CREATE_QUIZ_QUESTIONS =
+    static final String CREATE_QUIZ_QUESTIONS =
             "CREATE TABLE " + TABLE_QUIZ_QUESTIONS + " ("
                     + QUESTION_COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + QUESTION_COLUMN_QUIZ_ID + " INTEGER, "
                     + QUESTION_COLUMN_STATE_ID + " INTEGER, "
-                    + QUESTION_COLUMN_USER_ANSWER + " TEXT, "
+                    + QUESTION_COLUMN_ANSWER_CHOICE + " INTEGER, "
                     + "FOREIGN KEY(" + QUESTION_COLUMN_QUIZ_ID + ") REFERENCES " + TABLE_QUIZZES + "(" + QUIZ_COLUMN_ID + "), "
                     + "FOREIGN KEY(" + QUESTION_COLUMN_STATE_ID + ") REFERENCES " + TABLE_STATES + "(" + STATES_COLUMN_ID + ")"
                     + ")";
 
+    // SQL statement to create "quiz_stats" table
+    static final String CREATE_QUIZ_STATS =
+            "CREATE TABLE " + TABLE_QUIZ_STATS + " ("
+                    + STATS_COLUMN_ID + " INTEGER PRIMARY KEY CHECK (" + STATS_COLUMN_ID + " = " + STATS_ROW_ID + "), "
+                    + STATS_COLUMN_COMPLETED_COUNT + " INTEGER NOT NULL, "
+                    + STATS_COLUMN_TOTAL_SCORE + " INTEGER NOT NULL, "
+                    + STATS_COLUMN_TOTAL_QUESTIONS + " INTEGER NOT NULL, "
+                    + STATS_COLUMN_PERFECT_COUNT + " INTEGER NOT NULL, "
+                    + STATS_COLUMN_CURRENT_STREAK + " INTEGER NOT NULL, "
+                    + STATS_COLUMN_BEST_STREAK + " INTEGER NOT NULL, "
+                    + STATS_COLUMN_FIRST_COMPLETED_AT + " INTEGER, "
+                    + STATS_COLUMN_LAST_COMPLETED_AT + " INTEGER"
+                    + ")";
+
+    // SQL statement to create "state_stats" table, keyed by state
+    static final String CREATE_STATE_STATS =
+            "CREATE TABLE " + TABLE_STATE_STATS + " ("
+                    + STATE_STATS_COLUMN_STATE_ID + " INTEGER PRIMARY KEY, "
+                    + STATE_STATS_COLUMN_ASKED_COUNT + " INTEGER NOT NULL, "
+                    + STATE_STATS_COLUMN_CORRECT_COUNT + " INTEGER NOT NULL, "
+                    + STATE_STATS_COLUMN_LAST_ASKED_AT + " INTEGER, "
+                    + "FOREIGN KEY(" + STATE_STATS_COLUMN_STATE_ID + ") REFERENCES " + TABLE_STATES + "(" + STATES_COLUMN_ID + ")"
+                    + ")";
+
+    // SQL statement to create "quiz_plan" table. Without a rowid, the rows of
+    // one quiz are stored together in primary key order and read as one range.
+    static final String CREATE_QUIZ_PLAN =
+            "CREATE TABLE " + TABLE_QUIZ_PLAN + " ("
+                    + PLAN_COLUMN_QUIZ_ID + " INTEGER NOT NULL, "
+                    + PLAN_COLUMN_POSITION + " INTEGER NOT NULL, "
+                    + PLAN_COLUMN_STATE_ID + " INTEGER NOT NULL, "
+                    + PLAN_COLUMN_CHOICE_ORDER + " INTEGER NOT NULL, "
+                    + "PRIMARY KEY(" + PLAN_COLUMN_QUIZ_ID + ", " + PLAN_COLUMN_POSITION + "), "
+                    + "FOREIGN KEY(" + PLAN_COLUMN_QUIZ_ID + ") REFERENCES " + TABLE_QUIZZES + "(" + QUIZ_COLUMN_ID + "), "
+                    + "FOREIGN KEY(" + PLAN_COLUMN_STATE_ID + ") REFERENCES " + TABLE_STATES + "(" + STATES_COLUMN_ID + ")"
+                    + ") WITHOUT ROWID";
+
+    // SQL statement to create "metadata" table
+    static final String CREATE_METADATA =
+            "CREATE TABLE " + TABLE_METADATA + " ("
+                    + METADATA_COLUMN_KEY + " TEXT PRIMARY KEY, "
+                    + METADATA_COLUMN_VALUE + " INTEGER NOT NULL"
+                    + ") WITHOUT ROWID";
+
+    // SQL statements to create secondary indexes used by quiz lookups,
+    // the quiz states join and the history ordering
+    private static final String CREATE_INDEX_QUESTIONS_QUIZ_ID =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_QUESTIONS_QUIZ_ID + " ON "
+                    + TABLE_QUIZ_QUESTIONS + "(" + QUESTION_COLUMN_QUIZ_ID + ")";
+    private static final String CREATE_INDEX_QUESTIONS_STATE_ID =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_QUESTIONS_STATE_ID + " ON "
+                    + TABLE_QUIZ_QUESTIONS + "(" + QUESTION_COLUMN_STATE_ID + ")";
+    private static final String CREATE_INDEX_QUIZZES_TIMESTAMP =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_QUIZZES_TIMESTAMP + " ON "
+                    + TABLE_QUIZZES + "(" + QUIZ_COLUMN_TIMESTAMP + ")";
+    private static final String CREATE_INDEX_QUIZZES_QUESTIONS_ANSWERED =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_QUIZZES_QUESTIONS_ANSWERED + " ON "
+                    + TABLE_QUIZZES + "(" + QUIZ_COLUMN_QUESTIONS_ANSWERED + ")";
+
+    // Partial index over unfinished quizzes only, so the newest quiz in
+    // progress is found without walking the completed history
+    private static final String CREATE_INDEX_QUIZZES_IN_PROGRESS =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_QUIZZES_IN_PROGRESS + " ON "
+                    + TABLE_QUIZZES + "(" + QUIZ_COLUMN_TIMESTAMP + ") WHERE "
+                    + QUIZ_COLUMN_QUESTIONS_ANSWERED + " < " + QUIZ_COLUMN_QUESTION_COUNT;
+
+    // Index for the by-name lookup that matches each imported state to its row,
+    // not unique since older versions never prevented duplicate names
+    private static final String CREATE_INDEX_STATES_NAME =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_STATES_NAME + " ON "
+                    + TABLE_STATES + "(" + STATES_COLUMN_NAME + ")";
+
+    static final String[] CREATE_INDEXES = {
+            CREATE_INDEX_QUESTIONS_QUIZ_ID,
+            CREATE_INDEX_QUESTIONS_STATE_ID,
+            CREATE_INDEX_QUIZZES_TIMESTAMP,
+            CREATE_INDEX_QUIZZES_QUESTIONS_ANSWERED,
+            CREATE_INDEX_QUIZZES_IN_PROGRESS,
+            CREATE_INDEX_STATES_NAME
+    };
+
     /**
      * Private constructor to enforce singleton pattern.
      *
@@ -99,7 +247,36 @@ public class StateQuizDBHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Creates the database tables.
+     * Enables foreign key enforcement, write-ahead logging and connection tuning.
+     *
+     * @param db the SQLiteDatabase object
+     */
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        configureConnection(db);
+    }
+
+    /**
+     * Applies the connection settings used by the app database.
+     * With write-ahead logging, queries run outside a transaction get their own
+     * pooled read connection, so the read lane is not blocked by an open write
+     * transaction on the write lane. Writes use synchronous=NORMAL, which is
+     * durable across app crashes and only risks the last commits on power loss.
+     * The pragmas apply to the primary connection, which performs every write.
+     *
+     * @param db the SQLiteDatabase object
+     */
+    static void configureConnection(SQLiteDatabase db) {
+        db.setForeignKeyConstraintsEnabled(true);
+        db.enableWriteAheadLogging();
+        db.execSQL("PRAGMA synchronous = NORMAL");
+        db.execSQL("PRAGMA cache_size = -" + CACHE_SIZE_KIB);
+        db.execSQL("PRAGMA temp_store = MEMORY");
+    }
+
+    /**
+     * Creates the database tables and indexes.
      *
      * @param db the SQLiteDatabase object
      */
@@ -108,9 +285,90 @@ public class StateQuizDBHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_STATES);
         db.execSQL(CREATE_QUIZZES);
         db.execSQL(CREATE_QUIZ_QUESTIONS);
+        db.execSQL(CREATE_QUIZ_STATS);
+        db.execSQL(CREATE_STATE_STATS);
+        db.execSQL(CREATE_QUIZ_PLAN);
+        db.execSQL(CREATE_METADATA);
+        createIndexes(db);
+        rebuildQuizStats(db);
         Log.d(DEBUG_TAG, "Database tables created");
     }
 
+    /**
+     * Creates the secondary indexes if they do not exist.
+     *
+     * @param db the SQLiteDatabase object
+     */
+    static void createIndexes(SQLiteDatabase db) {
+        for (String createIndex : CREATE_INDEXES) {
+            db.execSQL(createIndex);
+        }
+    }
+
+    /**
+     * Recomputes the quiz_stats row from the quizzes table, in timestamp order.
+     * Used to seed the table; afterwards QuizData updates it as quizzes complete.
+     *
+     * @param db the SQLiteDatabase object
+     */
+    static void rebuildQuizStats(SQLiteDatabase db) {
+        int completedCount = 0;
+        long totalScore = 0;
+        long totalQuestions = 0;
+        int perfectCount = 0;
+        int currentStreak = 0;
+        int bestStreak = 0;
+        Long firstCompletedAt = null;
+        Long lastCompletedAt = null;
+
+        try (Cursor cursor = db.rawQuery("SELECT " + QUIZ_COLUMN_SCORE + ", "
+                + QUIZ_COLUMN_QUESTION_COUNT + ", " + QUIZ_COLUMN_TIMESTAMP + " FROM " + TABLE_QUIZZES
+                + " WHERE " + QUIZ_COLUMN_QUESTIONS_ANSWERED + " >= " + QUIZ_COLUMN_QUESTION_COUNT
+                + " ORDER BY " + QUIZ_COLUMN_TIMESTAMP + ", " + QUIZ_COLUMN_ID, null)) {
+            while (cursor.moveToNext()) {
+                int score = cursor.getInt(0);
+                int questionCount = cursor.getInt(1);
+                long timestamp = cursor.getLong(2);
+
+                completedCount++;
+                totalScore += score;
+                totalQuestions += questionCount;
+                if (score >= questionCount) {
+                    perfectCount++;
+                    currentStreak++;
+                    bestStreak = Math.max(bestStreak, currentStreak);
+                } else {
+                    currentStreak = 0;
+                }
+                if (firstCompletedAt == null) {
+                    firstCompletedAt = timestamp;
+                }
+                lastCompletedAt = timestamp;
+            }
+        }
+
+        db.execSQL("INSERT OR REPLACE INTO " + TABLE_QUIZ_STATS + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new Object[]{STATS_ROW_ID, completedCount, totalScore, totalQuestions, perfectCount,
+                        currentStreak, bestStreak, firstCompletedAt, lastCompletedAt});
+        Log.d(DEBUG_TAG, "Quiz stats rebuilt from " + completedCount + " completed quizzes");
+    }
+
+    /**
+     * Recomputes the state_stats rows from the recorded answers.
+     * Used to seed the table; afterwards QuizData updates it on every answer.
+     *
+     * @param db the SQLiteDatabase object
+     */
+    static void rebuildStateStats(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_STATE_STATS);
+        db.execSQL("INSERT INTO " + TABLE_STATE_STATS + " SELECT q." + QUESTION_COLUMN_STATE_ID
+                + ", COUNT(*), COALESCE(SUM(q." + QUESTION_IS_CORRECT + "), 0), MAX(z." + QUIZ_COLUMN_TIMESTAMP + ")"
+                + " FROM " + TABLE_QUIZ_QUESTIONS + " q JOIN " + TABLE_QUIZZES + " z"
+                + " ON z." + QUIZ_COLUMN_ID + " = q." + QUESTION_COLUMN_QUIZ_ID
+                + " WHERE q." + QUESTION_COLUMN_STATE_ID + " IN (SELECT " + STATES_COLUMN_ID + " FROM " + TABLE_STATES + ")"
+                + " GROUP BY q." + QUESTION_COLUMN_STATE_ID);
+    }
+
     /**
      * Upgrades the database schema when the version number is increased.
      *
@@ -125,6 +383,75 @@ public class StateQuizDBHelper extends SQLiteOpenHelper {
             db.execSQL("ALTER TABLE " + TABLE_QUIZZES +
                     " ADD COLUMN " + QUIZ_COLUMN_LAST_ANSWER + " TEXT");
         }
+        if (oldVersion < 3) {
+            // Index the columns used by joins and filters
+            db.execSQL(CREATE_INDEX_QUESTIONS_QUIZ_ID);
+            db.execSQL(CREATE_INDEX_QUESTIONS_STATE_ID);
+            db.execSQL(CREATE_INDEX_QUIZZES_QUESTIONS_ANSWERED);
+        }
+        if (oldVersion < 4) {
+            // Replace the locale-formatted date text with indexed epoch millis.
+            // The text was written in local time; unparseable dates sort as oldest.
+            db.execSQL("ALTER TABLE " + TABLE_QUIZZES +
+                    " ADD COLUMN " + QUIZ_COLUMN_TIMESTAMP + " INTEGER");
+            db.execSQL("UPDATE " + TABLE_QUIZZES + " SET " + QUIZ_COLUMN_TIMESTAMP +
+                    " = COALESCE(CAST(strftime('%s', " + QUIZ_COLUMN_LEGACY_DATE +
+                    ", 'utc') AS INTEGER) * 1000, 0)");
+            db.execSQL("DROP INDEX IF EXISTS " + INDEX_QUIZZES_LEGACY_DATE);
+            db.execSQL(CREATE_INDEX_QUIZZES_TIMESTAMP);
+        }
+        if (oldVersion < 5) {
+            // Store each quiz's length; the default backfills existing rows
+            db.execSQL("ALTER TABLE " + TABLE_QUIZZES + " ADD COLUMN " + QUIZ_COLUMN_QUESTION_COUNT +
+                    " INTEGER NOT NULL DEFAULT " + LEGACY_QUESTION_COUNT);
+        }
+        if (oldVersion < 6) {
+            // Aggregate the existing history once; completion times before
+            // version 6 were not stored, so the start times stand in for them
+            db.execSQL(CREATE_QUIZ_STATS);
+            rebuildQuizStats(db);
+        }
+        if (oldVersion < 7) {
+            // Per-state answer counts; filled from the recoded answers below
+            db.execSQL(CREATE_STATE_STATS);
+        }
+        if (oldVersion < 8) {
+            // SQLite cannot drop columns here, so the answers table is rebuilt with
+            // each answer text mapped to the choice code of the matching city.
+            // Texts matching none of the state's cities keep a null choice.
+            // Answers whose quiz or state is gone would fail the foreign keys, so they are dropped.
+            db.execSQL("ALTER TABLE " + TABLE_QUIZ_QUESTIONS + " RENAME TO " + TABLE_LEGACY_QUIZ_QUESTIONS);
+            db.execSQL(CREATE_QUIZ_QUESTIONS);
+            db.execSQL("INSERT INTO " + TABLE_QUIZ_QUESTIONS + " ("
+                    + QUESTION_COLUMN_ID + ", " + QUESTION_COLUMN_QUIZ_ID + ", "
+                    + QUESTION_COLUMN_STATE_ID + ", " + QUESTION_COLUMN_ANSWER_CHOICE + ")"
+                    + " SELECT q." + QUESTION_COLUMN_ID + ", q." + QUESTION_COLUMN_QUIZ_ID
+                    + ", q." + QUESTION_COLUMN_STATE_ID
+                    + ", CASE q." + QUESTION_COLUMN_LEGACY_USER_ANSWER
+                    + " WHEN s." + STATES_COLUMN_CAPITAL + " THEN " + State.CHOICE_CAPITAL
+                    + " WHEN s." + STATES_COLUMN_CITY2 + " THEN " + State.CHOICE_CITY2
+                    + " WHEN s." + STATES_COLUMN_CITY3 + " THEN " + State.CHOICE_CITY3 + " END"
+                    + " FROM " + TABLE_LEGACY_QUIZ_QUESTIONS + " q JOIN " + TABLE_STATES + " s"
+                    + " ON s." + STATES_COLUMN_ID + " = q." + QUESTION_COLUMN_STATE_ID
+                    + " WHERE q." + QUESTION_COLUMN_QUIZ_ID + " IN (SELECT " + QUIZ_COLUMN_ID
+                    + " FROM " + TABLE_QUIZZES + ")");
+            // The old indexes go with the old table and are recreated on the new one
+            db.execSQL("DROP TABLE " + TABLE_LEGACY_QUIZ_QUESTIONS);
+            db.execSQL(CREATE_INDEX_QUESTIONS_QUIZ_ID);
+            db.execSQL(CREATE_INDEX_QUESTIONS_STATE_ID);
+            rebuildStateStats(db);
+        }
+        if (oldVersion < 9) {
+            // Quizzes started before version 9 have no plan and resume from their answers
+            db.execSQL(CREATE_QUIZ_PLAN);
+            db.execSQL(CREATE_INDEX_QUIZZES_IN_PROGRESS);
+        }
+        if (oldVersion < 10) {
+            // No dataset version is recorded yet, so the next load re-seeds the
+            // states in place and records it
+            db.execSQL(CREATE_METADATA);
+            db.execSQL(CREATE_INDEX_STATES_NAME);
+        }
         Log.d(DEBUG_TAG, "Database tables upgraded from version " + oldVersion +
                 " to " + newVersion);
     }
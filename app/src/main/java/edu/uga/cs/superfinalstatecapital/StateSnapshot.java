@@ -0,0 +1,67 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the binary state snapshot generated at build time from the states CSV
+ * (see the generateStateSnapshot task in app/build.gradle).
+ * Format: magic, format version, row count, then for each row the state name,
+ * capital, second city and third city as modified UTF-8 strings.
+ */
+public class StateSnapshot {
+    private static final String DEBUG_TAG = "StateSnapshot";
+    private static final String SNAPSHOT_ASSET = "state_capitals.bin";
+
+    private static final int MAGIC = 0x53544353; // "STCS"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Loads the snapshot into the database in a single bulk import transaction
+     * @return true if the snapshot was found and imported, false to fall back to the CSV
+     */
+    public static boolean readStateData(Context context, QuizData quizData) {
+        InputStream in;
+        try {
+            in = context.getAssets().open(SNAPSHOT_ASSET);
+        } catch (FileNotFoundException e) {
+            Log.d(DEBUG_TAG, "No state snapshot packaged");
+            return false;
+        } catch (IOException e) {
+            Log.e(DEBUG_TAG, "Error opening state snapshot: " + e.getMessage());
+            return false;
+        }
+
+        QuizData.StateImport stateImport = quizData.beginStateImport();
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+                Log.e(DEBUG_TAG, "Unrecognized state snapshot format");
+                return false;
+            }
+            int rowCount = data.readInt();
+            for (int i = 0; i < rowCount; i++) {
+                stateImport.insert(
+                        data.readUTF(), // state name
+                        data.readUTF(), // capital
+                        data.readUTF(), // second city
+                        data.readUTF()  // third city
+                );
+            }
+            stateImport.setSuccessful();
+            Log.d(DEBUG_TAG, "Loaded " + rowCount + " states from snapshot");
+            return true;
+        } catch (IOException e) {
+            Log.e(DEBUG_TAG, "Error reading state snapshot: " + e.getMessage());
+        } catch (Exception e) {
+            Log.e(DEBUG_TAG, "Error storing states from snapshot: " + e.getMessage());
+        } finally {
+            stateImport.finish();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,218 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import java.util.Random;
+
+/**
+ * Picks distinct question IDs with probability proportional to a weight.
+ * Weights are kept in a Fenwick (binary indexed) tree, so changing one weight
+ * and drawing one question each cost O(log n): drawing k questions is
+ * O(k log n) whatever the catalog size, and weights can be adjusted after
+ * every answer without rebuilding the sampler.
+ * Not thread-safe.
+ */
+public class WeightedQuestionSampler {
+
+    private final long[] ids;
+    private final double[] weights;
+    // 1-based Fenwick tree of partial weight sums
+    private final double[] tree;
+    private final Random random;
+    // Candidates taken out of the tree by the draw in progress
+    private final boolean[] drawnFlags;
+    // Largest power of two not above the number of candidates
+    private final int topStep;
+
+    // Weight updates since the tree was last rebuilt from the weights,
+    // so floating-point drift from repeated add/subtract stays bounded
+    private int updatesSinceRebuild;
+
+    /**
+     * Creates a sampler with the given random source, e.g. a seeded one for tests
+     *
+     * @param ids     candidate IDs; the array is copied
+     * @param weights non-negative weight of each candidate; the array is copied
+     * @param random  random source used for drawing
+     */
+    public WeightedQuestionSampler(long[] ids, double[] weights, Random random) {
+        if (ids.length != weights.length) {
+            throw new IllegalArgumentException("Expected " + ids.length + " weights, got " + weights.length);
+        }
+        for (double weight : weights) {
+            checkWeight(weight);
+        }
+        this.ids = ids.clone();
+        this.weights = weights.clone();
+        this.tree = new double[ids.length + 1];
+        this.drawnFlags = new boolean[ids.length];
+        this.random = random;
+        this.topStep = ids.length == 0 ? 0 : Integer.highestOneBit(ids.length);
+        rebuild();
+    }
+
+    /**
+     * Returns the number of candidate IDs
+     *
+     * @return the number of candidates
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the candidate ID at an index
+     *
+     * @param index index of the candidate
+     * @return its ID
+     */
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the weight of the candidate at an index
+     *
+     * @param index index of the candidate
+     * @return its weight
+     */
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Returns the sum of all weights
+     *
+     * @return the total weight
+     */
+    public double getTotalWeight() {
+        return prefixSum(ids.length);
+    }
+
+    /**
+     * Changes the weight of one candidate in O(log n)
+     *
+     * @param index  index of the candidate
+     * @param weight its new, non-negative weight; 0 excludes it from draws
+     */
+    public void setWeight(int index, double weight) {
+        checkWeight(weight);
+        add(index, weight - weights[index]);
+        weights[index] = weight;
+        if (++updatesSinceRebuild >= ids.length) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Draws distinct IDs, each draw picking a remaining candidate with
+     * probability proportional to its weight.
+     * Candidates with zero weight are never drawn, so fewer IDs than asked
+     * for are returned when not enough candidates have a positive weight.
+     *
+     * @param count number of IDs wanted
+     * @return array of at most count distinct IDs, in draw order
+     */
+    public long[] sample(int count) {
+        int k = Math.min(Math.max(count, 0), ids.length);
+        int[] drawn = new int[k];
+        int drawnCount = 0;
+        // Remove each drawn candidate from the tree, then put them all back
+        while (drawnCount < k) {
+            double total = prefixSum(ids.length);
+            if (total <= 0) {
+                break;
+            }
+            int index = find(random.nextDouble() * total);
+            if (index < 0) {
+                break;
+            }
+            drawn[drawnCount++] = index;
+            drawnFlags[index] = true;
+            add(index, -weights[index]);
+        }
+        long[] sample = new long[drawnCount];
+        for (int i = 0; i < drawnCount; i++) {
+            sample[i] = ids[drawn[i]];
+            drawnFlags[drawn[i]] = false;
+            add(drawn[i], weights[drawn[i]]);
+        }
+        updatesSinceRebuild += 2 * drawnCount;
+        if (updatesSinceRebuild >= ids.length) {
+            rebuild();
+        }
+        return sample;
+    }
+
+    /**
+     * Finds the candidate whose cumulative weight range contains target,
+     * descending the tree from the largest power of two
+     *
+     * @return its index, or -1 if no candidate with positive weight is left
+     */
+    private int find(double target) {
+        int position = 0;
+        for (int step = topStep; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= ids.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        // Rounding can land on an excluded candidate next to the right one
+        if (position < ids.length && weights[position] > 0 && !drawnFlags[position]) {
+            return position;
+        }
+        for (int i = Math.min(position, ids.length - 1); i >= 0; i--) {
+            if (weights[i] > 0 && !drawnFlags[i]) {
+                return i;
+            }
+        }
+        for (int i = position + 1; i < ids.length; i++) {
+            if (weights[i] > 0 && !drawnFlags[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the sum of the first count weights
+     */
+    private double prefixSum(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds delta to the weight at an index in the tree only
+     */
+    private void add(int index, double delta) {
+        for (int i = index + 1; i <= ids.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Rebuilds the tree from the weights in O(n)
+     */
+    private void rebuild() {
+        for (int i = 1; i <= ids.length; i++) {
+            tree[i] = weights[i - 1];
+        }
+        for (int i = 1; i <= ids.length; i++) {
+            int parent = i + (i & -i);
+            if (parent <= ids.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        updatesSinceRebuild = 0;
+    }
+
+    private static void checkWeight(double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Invalid weight " + weight);
+        }
+    }
+}
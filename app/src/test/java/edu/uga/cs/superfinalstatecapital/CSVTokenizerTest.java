@@ -0,0 +1,84 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the streaming CSV tokenizer.
+ */
+public class CSVTokenizerTest {
+
+    /**
+     * Collects parsed records as lists of strings
+     */
+    private static List<List<String>> parse(String csv, int bufferSize) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        new CSVTokenizer(bufferSize).tokenize(new StringReader(csv), new CSVTokenizer.FieldHandler() {
+            @Override
+            public void onField(int row, int column, CharSequence value) {
+                assertEquals(records.size(), row);
+                assertEquals(current.size(), column);
+                current.add(value.toString());
+            }
+
+            @Override
+            public void onRecordEnd(int row, int columnCount) {
+                assertEquals(current.size(), columnCount);
+                records.add(new ArrayList<>(current));
+                current.clear();
+            }
+        });
+        return records;
+    }
+
+    private static List<String> record(String... fields) {
+        List<String> record = new ArrayList<>();
+        for (String field : fields) record.add(field);
+        return record;
+    }
+
+    @Test
+    public void plainFields_areSplitOnCommas() throws IOException {
+        List<List<String>> records = parse("State,Capital\nGeorgia,Atlanta\n", 8192);
+        assertEquals(2, records.size());
+        assertEquals(record("State", "Capital"), records.get(0));
+        assertEquals(record("Georgia", "Atlanta"), records.get(1));
+    }
+
+    @Test
+    public void quotedFields_keepCommasQuotesAndLineBreaks() throws IOException {
+        List<List<String>> records = parse("\"Washington, D.C.\",\"say \"\"hi\"\"\",\"two\nlines\"", 8192);
+        assertEquals(1, records.size());
+        assertEquals(record("Washington, D.C.", "say \"hi\"", "two\nlines"), records.get(0));
+    }
+
+    @Test
+    public void emptyFieldsAndLineEndings_areHandled() throws IOException {
+        List<List<String>> records = parse("a,,\"\"\r\n\r\nb,c\r\n", 8192);
+        assertEquals(2, records.size());
+        assertEquals(record("a", "", ""), records.get(0));
+        assertEquals(record("b", "c"), records.get(1));
+    }
+
+    @Test
+    public void byteOrderMark_isIgnored() throws IOException {
+        List<List<String>> records = parse("\uFEFFa,b", 8192);
+        assertEquals(record("a", "b"), records.get(0));
+    }
+
+    @Test
+    public void resultsDoNotDependOnBufferSize() throws IOException {
+        String csv = "Alabama,Montgomery,Birmingham,Mobile\r\n\"Quoted, City\",\"x\"\"y\",z,w\n";
+        List<List<String>> expected = parse(csv, 8192);
+        for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+            assertEquals(expected, parse(csv, bufferSize));
+        }
+    }
+}
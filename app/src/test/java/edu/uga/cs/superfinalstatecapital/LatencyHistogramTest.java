@@ -0,0 +1,77 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the log-linear latency histogram and the in-memory metrics.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketUpperBound_coversEveryValueOfItsBucket() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            if (index > 0) {
+                assertTrue(value > LatencyHistogram.bucketUpperBound(index - 1));
+            }
+        }
+    }
+
+    @Test
+    public void percentiles_areWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertEquals(5000.5, histogram.getMeanMicros(), 0.001);
+        assertWithin(5000, histogram.getValueAtPercentile(50));
+        assertWithin(9900, histogram.getValueAtPercentile(99));
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void outOfRangeValues_areClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getMaxMicros());
+    }
+
+    @Test
+    public void reset_clearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void inMemoryMetrics_countLatenciesAndErrorsPerOperation() {
+        InMemoryQuizDataMetrics metrics = new InMemoryQuizDataMetrics();
+        metrics.record(QuizDataMetrics.Operation.GET_QUIZ_STATES, 250_000, false);
+        metrics.record(QuizDataMetrics.Operation.GET_QUIZ_STATES, 750_000, true);
+
+        assertEquals(2, metrics.getLatency(QuizDataMetrics.Operation.GET_QUIZ_STATES).getCount());
+        assertEquals(1, metrics.getErrorCount(QuizDataMetrics.Operation.GET_QUIZ_STATES));
+        assertEquals(0, metrics.getLatency(QuizDataMetrics.Operation.STORE_STATE).getCount());
+
+        String dump = metrics.dump();
+        assertTrue(dump.contains("get_quiz_states"));
+        assertFalse(dump.contains("store_state"));
+    }
+
+    // Percentiles are reported as bucket upper bounds, 1/16 above the value at most
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 16 + 1);
+    }
+}
@@ -0,0 +1,69 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the partial Fisher-Yates question sampler.
+ */
+public class QuestionSamplerTest {
+
+    private static long[] ids(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) ids[i] = i + 1;
+        return ids;
+    }
+
+    @Test
+    public void sample_returnsDistinctIdsFromCandidates() {
+        QuestionSampler sampler = new QuestionSampler(ids(50), new Random(42));
+        for (int round = 0; round < 100; round++) {
+            long[] sample = sampler.sample(6);
+            assertEquals(6, sample.length);
+            Set<Long> seen = new HashSet<>();
+            for (long id : sample) {
+                assertTrue(id >= 1 && id <= 50);
+                assertTrue("duplicate id " + id, seen.add(id));
+            }
+        }
+    }
+
+    @Test
+    public void sample_isReproducibleWithSameSeed() {
+        long[] first = new QuestionSampler(ids(50), new Random(7)).sample(10);
+        long[] second = new QuestionSampler(ids(50), new Random(7)).sample(10);
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void sample_largerThanCatalog_returnsWholeCatalog() {
+        long[] sample = new QuestionSampler(ids(4), new Random(1)).sample(6);
+        assertEquals(4, sample.length);
+        Set<Long> seen = new HashSet<>();
+        for (long id : sample) seen.add(id);
+        assertEquals(4, seen.size());
+    }
+
+    @Test
+    public void sample_emptyCatalog_returnsNothing() {
+        assertEquals(0, new QuestionSampler(new long[0], new Random(1)).sample(6).length);
+    }
+
+    @Test
+    public void sample_coversEveryIdOverManyDraws() {
+        QuestionSampler sampler = new QuestionSampler(ids(50), new Random(3));
+        int[] counts = new int[51];
+        for (int round = 0; round < 5000; round++) {
+            for (long id : sampler.sample(6)) counts[(int) id]++;
+        }
+        // Expected 600 draws per id; allow a wide margin
+        for (int id = 1; id <= 50; id++) {
+            assertTrue("id " + id + " drawn " + counts[id] + " times", counts[id] > 450 && counts[id] < 750);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the quiz plan and its packed choice orders.
+ */
+public class QuizPlanTest {
+
+    @Test
+    public void choiceOrder_roundTripsEveryPermutation() {
+        int[][] permutations = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        Set<Integer> codes = new HashSet<>();
+        for (int[] order : permutations) {
+            int encoded = QuizPlan.encodeChoiceOrder(order);
+            assertTrue(codes.add(encoded));
+            assertArrayEquals(order, QuizPlan.decodeChoiceOrder(encoded));
+        }
+    }
+
+    @Test
+    public void create_keepsStatesInOrderAndShufflesEachQuestion() {
+        long[] stateIds = new long[200];
+        for (int i = 0; i < stateIds.length; i++) {
+            stateIds[i] = 1000 + i;
+        }
+        QuizPlan plan = QuizPlan.create(stateIds, new Random(7));
+        assertEquals(stateIds.length, plan.size());
+        assertArrayEquals(stateIds, plan.getStateIds());
+
+        Set<String> orders = new HashSet<>();
+        for (int i = 0; i < plan.size(); i++) {
+            int[] order = plan.getChoiceOrder(i);
+            int[] sorted = order.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(new int[]{State.CHOICE_CAPITAL, State.CHOICE_CITY2, State.CHOICE_CITY3}, sorted);
+            orders.add(Arrays.toString(order));
+        }
+        // All six orders turn up over 200 questions
+        assertEquals(6, orders.size());
+    }
+
+    @Test
+    public void constructor_rejectsMismatchedArrays() {
+        try {
+            new QuizPlan(new long[]{1, 2}, new int[]{5});
+            fail("mismatched plan accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
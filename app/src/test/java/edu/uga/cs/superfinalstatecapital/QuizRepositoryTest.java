@@ -0,0 +1,512 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Looper;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Verifies that QuizRepository keeps every QuizData call off the main thread
+ * and delivers its results back on the main thread, and that the shared
+ * connection is only closed once no reference is held.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QuizRepositoryTest {
+
+    private static final long TIMEOUT_MS = 5000;
+    private static final int[] CAPITAL_ANSWER = {State.CHOICE_CAPITAL};
+
+    private final AtomicInteger mainThreadDbCalls = new AtomicInteger();
+    private QuizData quizData;
+    private QuizRepository repository;
+
+    /**
+     * QuizData that counts calls made on the main thread
+     */
+    private class ThreadCheckingQuizData extends QuizData {
+        ThreadCheckingQuizData(Context context) {
+            super(context);
+        }
+
+        private void check() {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mainThreadDbCalls.incrementAndGet();
+            }
+        }
+
+        @Override public void open() { check(); super.open(); }
+        @Override public void close() { check(); super.close(); }
+        @Override public State storeState(State state) { check(); return super.storeState(state); }
+        @Override public long startNewQuiz(int questionCount) {
+            check();
+            return super.startNewQuiz(questionCount);
+        }
+        @Override public long startNewQuiz(QuizPlan plan) { check(); return super.startNewQuiz(plan); }
+        @Override public QuizPlan getQuizPlan(long quizId) { check(); return super.getQuizPlan(quizId); }
+        @Override public void storeQuizQuestion(long quizId, long stateId, int answerChoice) {
+            check();
+            super.storeQuizQuestion(quizId, stateId, answerChoice);
+        }
+        @Override public int storeAnswers(long quizId, int firstIndex, long[] stateIds,
+                                          int[] answerChoices, int score) {
+            check();
+            return super.storeAnswers(quizId, firstIndex, stateIds, answerChoices, score);
+        }
+        @Override public List<StateAccuracy> getWeakestStates(int limit) {
+            check();
+            return super.getWeakestStates(limit);
+        }
+        @Override public void updateQuizScore(long quizId, int score, int questionsAnswered) {
+            check();
+            super.updateQuizScore(quizId, score, questionsAnswered);
+        }
+        @Override public int getStatesDatasetVersion() { check(); return super.getStatesDatasetVersion(); }
+        @Override public boolean storeStatesDatasetVersion(int version) {
+            check();
+            return super.storeStatesDatasetVersion(version);
+        }
+        @Override public List<State> retrieveAllStates() { check(); return super.retrieveAllStates(); }
+        @Override public List<QuizResult> getPastQuizResults() { check(); return super.getPastQuizResults(); }
+        @Override public Quiz getQuizInProgress() { check(); return super.getQuizInProgress(); }
+        @Override public QuizStats getQuizStats() { check(); return super.getQuizStats(); }
+        @Override public List<State> getQuizStates(long quizId) { check(); return super.getQuizStates(quizId); }
+        @Override public void saveQuizState(long quizId, int currentQuestion, int score, String selectedAnswer) {
+            check();
+            super.saveQuizState(quizId, currentQuestion, score, selectedAnswer);
+        }
+    }
+
+    /**
+     * Starts an asynchronous call
+     */
+    private interface AsyncCall<T> {
+        void start(QuizRepository.Callback<T> callback);
+    }
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        resetQuizHistory(context);
+        quizData = new ThreadCheckingQuizData(context);
+        repository = new QuizRepository(context, quizData);
+    }
+
+    /**
+     * Clears the quizzes, answers and their stats that earlier tests left in the
+     * shared database, keeping the seeded states
+     */
+    private static void resetQuizHistory(Context context) {
+        SQLiteDatabase db = StateQuizDBHelper.getInstance(context).getWritableDatabase();
+        db.execSQL("DELETE FROM " + StateQuizDBHelper.TABLE_QUIZ_PLAN);
+        db.execSQL("DELETE FROM " + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS);
+        db.execSQL("DELETE FROM " + StateQuizDBHelper.TABLE_STATE_STATS);
+        db.execSQL("DELETE FROM " + StateQuizDBHelper.TABLE_QUIZZES);
+        StateQuizDBHelper.rebuildQuizStats(db);
+    }
+
+    @Test
+    public void databaseAccessNeverRunsOnMainThread() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+        assertEquals(50, states.size());
+
+        Long quizId = await(callback -> repository.startNewQuiz(null, 6, callback));
+        assertTrue(quizId > 0);
+
+        State state = states.get(0);
+        repository.storeQuizQuestion(quizId, state.getId(), State.CHOICE_CAPITAL);
+        repository.saveQuizState(quizId, 1, 1, state.getCapital());
+        drainWrites();
+
+        QuizData.Quiz inProgress = await(callback -> repository.getQuizInProgress(null, callback));
+        assertNotNull(inProgress);
+        assertEquals(quizId.longValue(), inProgress.getId());
+
+        List<State> quizStates = await(callback -> repository.getQuizStates(null, quizId, callback));
+        assertEquals(1, quizStates.size());
+
+        repository.updateQuizScore(quizId, 1, 6);
+        drainWrites();
+        List<QuizResult> results = await(callback -> repository.getPastQuizResults(null, callback));
+        assertEquals(1, results.size());
+
+        repository.close();
+        drainWrites();
+        QuizData.Quiz afterReopen = await(callback -> repository.getQuizInProgress(null, callback));
+        assertNull(afterReopen);
+
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void loadStatesIfNeeded_reseedsInPlaceWhenDatasetVersionMissing() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+        State state = states.get(0);
+
+        // A database whose recorded version was lost, holding an outdated capital
+        SQLiteDatabase db = StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext())
+                .getWritableDatabase();
+        assertEquals(QuizRepository.STATES_DATASET_VERSION, DatabaseUtils.longForQuery(db,
+                "SELECT " + StateQuizDBHelper.METADATA_COLUMN_VALUE + " FROM " + StateQuizDBHelper.TABLE_METADATA,
+                null));
+        db.execSQL("DELETE FROM " + StateQuizDBHelper.TABLE_METADATA);
+        db.execSQL("UPDATE " + StateQuizDBHelper.TABLE_STATES + " SET " + StateQuizDBHelper.STATES_COLUMN_CAPITAL
+                + " = 'Outdated' WHERE " + StateQuizDBHelper.STATES_COLUMN_ID + " = " + state.getId());
+
+        loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> reseeded = await(callback -> repository.retrieveAllStates(null, callback));
+        assertEquals(states.size(), reseeded.size());
+        State restored = null;
+        for (State candidate : reseeded) {
+            if (candidate.getName().equals(state.getName())) {
+                restored = candidate;
+            }
+        }
+        assertNotNull(restored);
+        assertEquals(state.getId(), restored.getId());
+        assertEquals(state.getCapital(), restored.getCapital());
+        assertEquals(QuizRepository.STATES_DATASET_VERSION, DatabaseUtils.longForQuery(db,
+                "SELECT " + StateQuizDBHelper.METADATA_COLUMN_VALUE + " FROM " + StateQuizDBHelper.TABLE_METADATA,
+                null));
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void storeAnswers_replayedBatchIsNotDuplicated() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+        Long quizId = await(callback -> repository.startNewQuiz(null, 6, callback));
+
+        long[] stateIds = {states.get(0).getId(), states.get(1).getId()};
+        int[] answers = {State.CHOICE_CAPITAL, State.CHOICE_CITY2};
+        Integer stored = await(callback -> repository.storeAnswers(quizId, 0, stateIds, answers, 1, callback));
+        assertEquals(2, stored.intValue());
+
+        // The same batch plus one new answer, as after an unconfirmed flush
+        long[] replayIds = {stateIds[0], stateIds[1], states.get(2).getId()};
+        int[] replayAnswers = {answers[0], answers[1], State.CHOICE_CAPITAL};
+        stored = await(callback -> repository.storeAnswers(quizId, 0, replayIds, replayAnswers, 2, callback));
+        assertEquals(3, stored.intValue());
+
+        List<State> quizStates = await(callback -> repository.getQuizStates(null, quizId, callback));
+        assertEquals(3, quizStates.size());
+        QuizData.Quiz inProgress = await(callback -> repository.getQuizInProgress(null, callback));
+        assertEquals(3, inProgress.getQuestionsAnswered());
+        assertEquals(2, inProgress.getScore());
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void quizPlan_storedWithQuizAndReadInOrder() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+
+        long[] stateIds = {states.get(9).getId(), states.get(3).getId(), states.get(27).getId()};
+        QuizPlan plan = QuizPlan.create(stateIds, new Random(1));
+        Long quizId = await(callback -> repository.startNewQuiz(null, plan, callback));
+        assertTrue(quizId > 0);
+
+        // After one answer the plan still holds the unanswered questions
+        Integer storedCount = await(callback ->
+                repository.storeAnswers(quizId, 0, new long[]{stateIds[0]}, CAPITAL_ANSWER, 1, callback));
+        assertEquals(1, storedCount.intValue());
+        List<State> answeredStates = await(callback -> repository.getQuizStates(null, quizId, callback));
+        assertEquals(1, answeredStates.size());
+
+        QuizPlan stored = await(callback -> repository.getQuizPlan(null, quizId, callback));
+        assertArrayEquals(stateIds, stored.getStateIds());
+        assertArrayEquals(plan.getEncodedChoiceOrders(), stored.getEncodedChoiceOrders());
+
+        // Quizzes started without a plan have none
+        Long planless = await(callback -> repository.startNewQuiz(null, 6, callback));
+        QuizPlan none = await(callback -> repository.getQuizPlan(null, planless, callback));
+        assertNull(none);
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void longQuiz_storesPlanLengthAsQuestionCount() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        StateCatalog catalog = await(callback -> repository.getStateCatalog(null, callback));
+
+        long[] stateIds = catalog.sampleStateIds(20);
+        assertEquals(20, stateIds.length);
+        assertPlanMatchesQuestionCount(stateIds);
+    }
+
+    @Test
+    public void fullCatalogQuiz_asksEveryState() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+        AdaptiveSampler sampler = await(callback -> repository.getAdaptiveSampler(null, callback));
+
+        long[] stateIds = sampler.sample(QuizFragment.ALL_STATES, System.currentTimeMillis());
+        assertEquals(states.size(), stateIds.length);
+        long[] sorted = stateIds.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            assertNotEquals(sorted[i - 1], sorted[i]);
+        }
+        assertPlanMatchesQuestionCount(stateIds);
+    }
+
+    @Test
+    public void planlessQuiz_resumesFromAnsweredStates() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+
+        // Started without a plan, as every quiz before version 9 was
+        Long quizId = await(callback -> repository.startNewQuiz(null, 6, callback));
+        long[] answeredIds = {states.get(14).getId(), states.get(5).getId()};
+        int[] answers = {State.CHOICE_CAPITAL, State.CHOICE_CITY2};
+        Integer stored = await(callback -> repository.storeAnswers(quizId, 0, answeredIds, answers, 1, callback));
+        assertEquals(answeredIds.length, stored.intValue());
+        QuizPlan none = await(callback -> repository.getQuizPlan(null, quizId, callback));
+        assertNull(none);
+
+        // The fallback QuizFragment.resumeQuiz takes without a plan
+        List<State> quizStates = await(callback -> repository.getQuizStates(null, quizId, callback));
+        QuizPlan plan = QuizPlan.forStates(quizStates, new Random(2));
+        assertArrayEquals(answeredIds, plan.getStateIds());
+        for (int i = 0; i < plan.size(); i++) {
+            int[] order = plan.getChoiceOrder(i);
+            Arrays.sort(order);
+            assertArrayEquals(new int[]{State.CHOICE_CAPITAL, State.CHOICE_CITY2, State.CHOICE_CITY3}, order);
+        }
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void quizStats_updatedOnlyWhenQuizCompletes() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+        QuizStats before = await(callback -> repository.getQuizStats(null, callback));
+
+        Long quizId = await(callback -> repository.startNewQuiz(null, 2, callback));
+        long[] firstId = {states.get(0).getId()};
+        Integer stored = await(callback -> repository.storeAnswers(quizId, 0, firstId, CAPITAL_ANSWER, 1, callback));
+        assertEquals(1, stored.intValue());
+        QuizStats partial = await(callback -> repository.getQuizStats(null, callback));
+        assertEquals(before.getCompletedCount(), partial.getCompletedCount());
+
+        long[] secondId = {states.get(1).getId()};
+        stored = await(callback -> repository.storeAnswers(quizId, 1, secondId, CAPITAL_ANSWER, 2, callback));
+        assertEquals(2, stored.intValue());
+        // Replaying the completing batch must not count the quiz twice
+        stored = await(callback -> repository.storeAnswers(quizId, 1, secondId, CAPITAL_ANSWER, 2, callback));
+        assertEquals(2, stored.intValue());
+        repository.updateQuizScore(quizId, 2, 2);
+        drainWrites();
+
+        QuizStats after = await(callback -> repository.getQuizStats(null, callback));
+        assertEquals(before.getCompletedCount() + 1, after.getCompletedCount());
+        assertEquals(before.getTotalScore() + 2, after.getTotalScore());
+        assertEquals(before.getTotalQuestions() + 2, after.getTotalQuestions());
+        assertEquals(before.getPerfectCount() + 1, after.getPerfectCount());
+        assertEquals(before.getCurrentStreak() + 1, after.getCurrentStreak());
+        assertTrue(after.getLastCompletedAt() > 0);
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void weakestStates_rankedByErrorRate() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+        List<State> states = await(callback -> repository.retrieveAllStates(null, callback));
+        long always = states.get(0).getId();
+        long third = states.get(1).getId();
+        long half = states.get(2).getId();
+        long never = states.get(3).getId();
+
+        long[] stateIds = {always, third, half, never, always, third, half, never, third};
+        int[] answers = {State.CHOICE_CAPITAL, State.CHOICE_CAPITAL, State.CHOICE_CAPITAL, State.CHOICE_CITY2,
+                State.CHOICE_CAPITAL, State.CHOICE_CITY3, State.CHOICE_CITY3, State.CHOICE_CITY3, State.CHOICE_CITY2};
+        Long quizId = await(callback -> repository.startNewQuiz(null, stateIds.length, callback));
+        Integer stored = await(callback -> repository.storeAnswers(quizId, 0, stateIds, answers, 4, callback));
+        assertEquals(stateIds.length, stored.intValue());
+
+        // Expected ranking from the answers above: states with a wrong answer,
+        // by error rate and then by times asked
+        Map<Long, int[]> tallies = new HashMap<>();
+        for (int i = 0; i < stateIds.length; i++) {
+            int[] tally = tallies.computeIfAbsent(stateIds[i], id -> new int[2]);
+            tally[0]++;
+            if (State.isCorrectChoice(answers[i])) tally[1]++;
+        }
+        List<Long> expected = new ArrayList<>();
+        for (Map.Entry<Long, int[]> entry : tallies.entrySet()) {
+            if (entry.getValue()[1] < entry.getValue()[0]) expected.add(entry.getKey());
+        }
+        Collections.sort(expected, (a, b) -> {
+            int[] ta = tallies.get(a);
+            int[] tb = tallies.get(b);
+            int byRate = Double.compare((tb[0] - tb[1]) / (double) tb[0], (ta[0] - ta[1]) / (double) ta[0]);
+            return byRate != 0 ? byRate : Integer.compare(tb[0], ta[0]);
+        });
+        assertEquals(Arrays.asList(never, third, half), expected);
+
+        List<StateAccuracy> weakest = await(callback -> repository.getWeakestStates(null, states.size(), callback));
+        List<Long> ranked = new ArrayList<>();
+        for (StateAccuracy accuracy : weakest) {
+            ranked.add(accuracy.getStateId());
+            int[] tally = tallies.get(accuracy.getStateId());
+            assertEquals(tally[0], accuracy.getAskedCount());
+            assertEquals(tally[1], accuracy.getCorrectCount());
+        }
+        assertEquals(expected, ranked);
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    @Test
+    public void closeIfUnused_keepsConnectionWhileReferenced() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+
+        repository.acquire();
+        repository.acquire();
+        repository.release();
+        repository.closeIfUnused();
+        drainWrites();
+        assertTrue(quizData.isDBOpen());
+
+        repository.release();
+        assertEquals(0, repository.getReferenceCount());
+        assertTrue(quizData.isDBOpen());
+        repository.closeIfUnused();
+        drainWrites();
+        assertFalse(quizData.isDBOpen());
+    }
+
+    @Test
+    public void closeIfUnused_waitsForRunningRead() throws Exception {
+        Boolean loaded = await(callback -> repository.loadStatesIfNeeded(null, callback));
+        assertTrue(loaded);
+
+        // A read that stays inside QuizData until released
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch finishRead = new CountDownLatch(1);
+        QuizData blockingData = new QuizData(ApplicationProvider.getApplicationContext()) {
+            @Override
+            public List<State> retrieveAllStates() {
+                readStarted.countDown();
+                try {
+                    finishRead.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.retrieveAllStates();
+            }
+        };
+        QuizRepository readingRepository = new QuizRepository(ApplicationProvider.getApplicationContext(), blockingData);
+        AtomicReference<List<State>> states = new AtomicReference<>();
+        readingRepository.retrieveAllStates(null, states::set);
+        assertTrue(readStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // The running read holds a reference, so the trim leaves the connection open
+        assertEquals(1, readingRepository.getReferenceCount());
+        readingRepository.closeIfUnused();
+        drainWrites();
+        assertTrue(blockingData.isDBOpen());
+
+        finishRead.countDown();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (states.get() == null) {
+            assertTrue("Timed out waiting for the read", System.currentTimeMillis() < deadline);
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(5);
+        }
+        assertFalse(states.get().isEmpty());
+        assertEquals(0, readingRepository.getReferenceCount());
+        readingRepository.closeIfUnused();
+        drainWrites();
+        assertFalse(blockingData.isDBOpen());
+    }
+
+    @Test
+    public void getInstance_returnsProcessWideRepository() {
+        Context context = ApplicationProvider.getApplicationContext();
+        assertSame(QuizRepository.getInstance(context), QuizRepository.getInstance(context));
+    }
+
+    /**
+     * Blocks until every write queued so far has been applied
+     */
+    private void drainWrites() throws Exception {
+        AsyncTask.getExecutor(AsyncTask.Lane.WRITE).submit(() -> { }).get();
+    }
+
+    /**
+     * Starts a quiz over the given states and checks that its stored question
+     * count and plan both cover every one of them
+     */
+    private void assertPlanMatchesQuestionCount(long[] stateIds) throws Exception {
+        QuizPlan plan = QuizPlan.create(stateIds, new Random(7));
+        Long quizId = await(callback -> repository.startNewQuiz(null, plan, callback));
+        assertTrue(quizId > 0);
+        Integer stored = await(callback ->
+                repository.storeAnswers(quizId, 0, new long[]{stateIds[0]}, CAPITAL_ANSWER, 1, callback));
+        assertEquals(1, stored.intValue());
+
+        QuizData.Quiz quiz = await(callback -> repository.getQuizInProgress(null, callback));
+        assertEquals(quizId.longValue(), quiz.getId());
+        assertEquals(stateIds.length, quiz.getQuestionCount());
+        QuizPlan storedPlan = await(callback -> repository.getQuizPlan(null, quizId, callback));
+        assertEquals(quiz.getQuestionCount(), storedPlan.size());
+        assertArrayEquals(stateIds, storedPlan.getStateIds());
+        assertEquals(0, mainThreadDbCalls.get());
+    }
+
+    /**
+     * Runs the main looper until the callback fires and returns its result
+     */
+    private <T> T await(AsyncCall<T> call) throws InterruptedException {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean(false);
+        call.start(value -> {
+            assertSame(Looper.getMainLooper(), Looper.myLooper());
+            result.set(value);
+            done.set(true);
+        });
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!done.get()) {
+            assertTrue("Timed out waiting for callback", System.currentTimeMillis() < deadline);
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(5);
+        }
+        return result.get();
+    }
+}
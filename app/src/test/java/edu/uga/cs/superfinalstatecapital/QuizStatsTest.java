@@ -0,0 +1,35 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the values derived from the quiz_stats aggregates.
+ */
+public class QuizStatsTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Test
+    public void empty_hasNoAverageOrRate() {
+        assertEquals(0, QuizStats.EMPTY.getAverageScorePercent());
+        assertEquals(0.0, QuizStats.EMPTY.getQuizzesPerDay(), 0.0);
+    }
+
+    @Test
+    public void averageScorePercent_isShareOfCorrectAnswers() {
+        QuizStats stats = new QuizStats(3, 13, 18, 1, 0, 1, 0, 0);
+        assertEquals(72, stats.getAverageScorePercent());
+    }
+
+    @Test
+    public void quizzesPerDay_countsEveryDayInRange() {
+        // Six quizzes from day 0 to day 2 inclusive
+        QuizStats stats = new QuizStats(6, 30, 36, 2, 1, 2, 1000, 2 * DAY + 1000);
+        assertEquals(2.0, stats.getQuizzesPerDay(), 1e-9);
+
+        QuizStats sameDay = new QuizStats(4, 20, 24, 0, 0, 0, 1000, 5000);
+        assertEquals(4.0, sameDay.getQuizzesPerDay(), 1e-9);
+    }
+}
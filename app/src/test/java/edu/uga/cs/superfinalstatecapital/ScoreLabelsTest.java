@@ -0,0 +1,37 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the cached score labels used when binding result rows.
+ * The bind-time cost is measured by ScoreLabelsBenchmark in the benchmark module.
+ */
+public class ScoreLabelsTest {
+
+    @Test
+    public void get_matchesFormattedLabel() {
+        ScoreLabels labels = new ScoreLabels();
+        for (int total = 0; total <= ScoreLabels.MAX_CACHED_TOTAL + 5; total++) {
+            for (int score = 0; score <= total; score++) {
+                assertEquals(String.format("Score: %d/%d", score, total), labels.get(score, total));
+            }
+        }
+    }
+
+    @Test
+    public void get_reusesCachedInstance() {
+        ScoreLabels labels = new ScoreLabels();
+        assertSame(labels.get(4, 6), labels.get(4, 6));
+        assertSame(labels.get(0, ScoreLabels.MAX_CACHED_TOTAL), labels.get(0, ScoreLabels.MAX_CACHED_TOTAL));
+    }
+
+    @Test
+    public void get_outOfRangeValues_areStillLabelled() {
+        ScoreLabels labels = new ScoreLabels();
+        assertEquals("Score: 7/6", labels.get(7, 6));
+        assertEquals("Score: -1/6", labels.get(-1, 6));
+        assertEquals("Score: 3/500", labels.get(3, 500));
+    }
+}
@@ -0,0 +1,222 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies the schema migrations of StateQuizDBHelper on a database built
+ * with an older schema, and that a new database matches the exported schema
+ * in app/schemas that the benchmarks run against.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StateQuizDBHelperTest {
+
+    // Tables as created by version 7
+    private static final String[] VERSION_7_SCHEMA = {
+            "CREATE TABLE states (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, capital TEXT,"
+                    + " city2 TEXT, city3 TEXT)",
+            "CREATE TABLE quizzes (_id INTEGER PRIMARY KEY AUTOINCREMENT, timestamp INTEGER,"
+                    + " score INTEGER, questions_answered INTEGER, last_answer TEXT,"
+                    + " question_count INTEGER NOT NULL DEFAULT 6)",
+            "CREATE TABLE quiz_questions (_id INTEGER PRIMARY KEY AUTOINCREMENT, quiz_id INTEGER,"
+                    + " state_id INTEGER, user_answer TEXT, is_correct INTEGER,"
+                    + " FOREIGN KEY(quiz_id) REFERENCES quizzes(_id),"
+                    + " FOREIGN KEY(state_id) REFERENCES states(_id))",
+            "CREATE TABLE state_stats (state_id INTEGER PRIMARY KEY, asked_count INTEGER NOT NULL,"
+                    + " correct_count INTEGER NOT NULL, last_asked_at INTEGER,"
+                    + " FOREIGN KEY(state_id) REFERENCES states(_id))",
+            "CREATE INDEX idx_quiz_questions_quiz_id ON quiz_questions(quiz_id)",
+            "CREATE INDEX idx_quiz_questions_state_id ON quiz_questions(state_id)"
+    };
+
+    // Exported schema, on the test classpath from app/schemas
+    private static final String EXPORTED_SCHEMA = "/statequiz.sql";
+
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        for (String sql : VERSION_7_SCHEMA) {
+            db.execSQL(sql);
+        }
+        db.execSQL("INSERT INTO states (_id, name, capital, city2, city3)"
+                + " VALUES (1, 'Georgia', 'Atlanta', 'Savannah', 'Augusta'),"
+                + " (2, 'Ohio', 'Columbus', 'Cleveland', 'Cincinnati')");
+        db.execSQL("INSERT INTO quizzes (_id, timestamp, score, questions_answered) VALUES (1, 5000, 1, 4)");
+        db.execSQL("INSERT INTO quiz_questions (quiz_id, state_id, user_answer, is_correct) VALUES"
+                + " (1, 1, 'Atlanta', 1), (1, 1, 'Augusta', 0), (1, 1, 'Savannah', 0), (1, 1, 'Macon', 0)");
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void upgradeTo8_recodesAnswerTextsAsChoices() {
+        StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext()).onUpgrade(db, 7, 8);
+
+        try (Cursor cursor = db.rawQuery("SELECT " + StateQuizDBHelper.QUESTION_COLUMN_ANSWER_CHOICE
+                + " FROM " + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS
+                + " ORDER BY " + StateQuizDBHelper.QUESTION_COLUMN_ID, null)) {
+            assertEquals(4, cursor.getCount());
+            cursor.moveToNext();
+            assertEquals(State.CHOICE_CAPITAL, cursor.getInt(0));
+            cursor.moveToNext();
+            assertEquals(State.CHOICE_CITY3, cursor.getInt(0));
+            cursor.moveToNext();
+            assertEquals(State.CHOICE_CITY2, cursor.getInt(0));
+            cursor.moveToNext();
+            // Text matching none of the state's cities
+            assertTrue(cursor.isNull(0));
+        }
+
+        try (Cursor cursor = db.rawQuery("PRAGMA table_info(" + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS + ")", null)) {
+            int nameIndex = cursor.getColumnIndex("name");
+            while (cursor.moveToNext()) {
+                assertNotEquals(StateQuizDBHelper.QUESTION_COLUMN_LEGACY_USER_ANSWER, cursor.getString(nameIndex));
+            }
+        }
+        assertEquals(2, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index'"
+                + " AND tbl_name = '" + StateQuizDBHelper.TABLE_QUIZ_QUESTIONS + "'", null));
+
+        try (Cursor cursor = db.rawQuery("SELECT * FROM " + StateQuizDBHelper.TABLE_STATE_STATS, null)) {
+            assertTrue(cursor.moveToNext());
+            assertEquals(4, cursor.getInt(cursor.getColumnIndex(StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT)));
+            assertEquals(1, cursor.getInt(cursor.getColumnIndex(StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT)));
+            assertEquals(5000, cursor.getLong(cursor.getColumnIndex(StateQuizDBHelper.STATE_STATS_COLUMN_LAST_ASKED_AT)));
+        }
+    }
+
+    @Test
+    public void upgradeTo8_countsStateWithOnlyUnmatchedAnswersAsWrong() {
+        // Every legacy answer for Ohio matches none of its cities, so each recodes to a null choice
+        db.execSQL("INSERT INTO quiz_questions (quiz_id, state_id, user_answer, is_correct) VALUES"
+                + " (1, 2, 'Dayton', 0), (1, 2, NULL, 0)");
+
+        StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext()).onUpgrade(db, 7, 8);
+
+        try (Cursor cursor = db.rawQuery("SELECT * FROM " + StateQuizDBHelper.TABLE_STATE_STATS
+                + " WHERE " + StateQuizDBHelper.STATE_STATS_COLUMN_STATE_ID + " = 2", null)) {
+            assertTrue(cursor.moveToNext());
+            assertEquals(2, cursor.getInt(cursor.getColumnIndex(StateQuizDBHelper.STATE_STATS_COLUMN_ASKED_COUNT)));
+            assertEquals(0, cursor.getInt(cursor.getColumnIndex(StateQuizDBHelper.STATE_STATS_COLUMN_CORRECT_COUNT)));
+        }
+    }
+
+    @Test
+    public void upgradeTo8_dropsAnswersWithoutQuizOrStateUnderForeignKeys() {
+        // Written while foreign keys were off; the upgrade runs with them on
+        db.execSQL("INSERT INTO quiz_questions (quiz_id, state_id, user_answer, is_correct) VALUES"
+                + " (-1, 1, 'Atlanta', 1), (1, 99, 'Dayton', 0)");
+        db.setForeignKeyConstraintsEnabled(true);
+
+        StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext()).onUpgrade(db, 7, 8);
+
+        assertEquals(4, DatabaseUtils.queryNumEntries(db, StateQuizDBHelper.TABLE_QUIZ_QUESTIONS));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, StateQuizDBHelper.TABLE_QUIZ_QUESTIONS,
+                StateQuizDBHelper.QUESTION_COLUMN_QUIZ_ID + " = -1 OR "
+                        + StateQuizDBHelper.QUESTION_COLUMN_STATE_ID + " = 99"));
+        try (Cursor cursor = db.rawQuery("PRAGMA foreign_key_check", null)) {
+            assertEquals(0, cursor.getCount());
+        }
+    }
+
+    @Test
+    public void upgradeTo9_addsQuizPlanAndInProgressIndex() {
+        StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext()).onUpgrade(db, 7, 9);
+
+        db.execSQL("INSERT INTO " + StateQuizDBHelper.TABLE_QUIZ_PLAN + " VALUES (1, 0, 1, 21)");
+        assertEquals(1, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM "
+                + StateQuizDBHelper.TABLE_QUIZ_PLAN + " WHERE " + StateQuizDBHelper.PLAN_COLUMN_QUIZ_ID + " = 1", null));
+        assertEquals(1, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM sqlite_master WHERE name = '"
+                + StateQuizDBHelper.INDEX_QUIZZES_IN_PROGRESS + "'", null));
+    }
+
+    @Test
+    public void upgradeTo10_addsEmptyMetadataAndStateNameIndex() {
+        StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext()).onUpgrade(db, 7, 10);
+
+        // The import matches states by name through the index instead of a table scan
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN SELECT " + StateQuizDBHelper.STATES_COLUMN_ID
+                + " FROM " + StateQuizDBHelper.TABLE_STATES + " WHERE "
+                + StateQuizDBHelper.STATES_COLUMN_NAME + " = 'Ohio' LIMIT 1", null)) {
+            assertTrue(cursor.moveToNext());
+            assertTrue(cursor.getString(cursor.getColumnIndex("detail")).contains(StateQuizDBHelper.INDEX_STATES_NAME));
+        }
+
+        // No dataset version is recorded, so the states are re-seeded on the next load
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, StateQuizDBHelper.TABLE_METADATA));
+        db.execSQL("INSERT INTO " + StateQuizDBHelper.TABLE_METADATA + " VALUES (?, ?)",
+                new Object[]{StateQuizDBHelper.METADATA_KEY_STATES_DATASET_VERSION, 1});
+        assertEquals(1, DatabaseUtils.queryNumEntries(db, StateQuizDBHelper.TABLE_METADATA));
+    }
+
+    @Test
+    public void onCreate_matchesExportedSchema() throws IOException {
+        SQLiteDatabase created = SQLiteDatabase.create(null);
+        SQLiteDatabase exported = SQLiteDatabase.create(null);
+        try {
+            StateQuizDBHelper.getInstance(ApplicationProvider.getApplicationContext()).onCreate(created);
+            for (String statement : readExportedSchema()) {
+                exported.execSQL(statement);
+            }
+            assertEquals(schemaOf(exported), schemaOf(created));
+        } finally {
+            created.close();
+            exported.close();
+        }
+    }
+
+    /**
+     * Reads the statements of the exported schema, without comments
+     */
+    private static String[] readExportedSchema() throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (InputStream in = StateQuizDBHelperTest.class.getResourceAsStream(EXPORTED_SCHEMA)) {
+            assertNotNull("Missing " + EXPORTED_SCHEMA, in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().startsWith("--")) {
+                    text.append(line).append('\n');
+                }
+            }
+        }
+        return text.toString().trim().split("\\s*;\\s*");
+    }
+
+    /**
+     * Maps each table and index to its CREATE statement, with layout whitespace removed
+     */
+    private static Map<String, String> schemaOf(SQLiteDatabase database) {
+        Map<String, String> schema = new HashMap<>();
+        try (Cursor cursor = database.rawQuery("SELECT name, sql FROM sqlite_master"
+                + " WHERE sql IS NOT NULL AND name NOT LIKE 'sqlite_%' AND name != 'android_metadata'", null)) {
+            while (cursor.moveToNext()) {
+                String sql = cursor.getString(1).replaceAll("\\s+", " ").replaceAll(" ?([(),]) ?", "$1");
+                schema.put(cursor.getString(0), sql.trim());
+            }
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,182 @@
+package edu.uga.cs.superfinalstatecapital;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the Fenwick tree weighted question sampler and the
+ * adaptive weights built on it.
+ */
+public class WeightedQuestionSamplerTest {
+
+    private static long[] ids(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) ids[i] = i + 1;
+        return ids;
+    }
+
+    // Time the adaptive samplers below are built at
+    private static final long NOW = 1_000_000_000_000L;
+
+    private static StateCatalog catalog(int count) {
+        List<State> states = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            State state = new State("State " + (i + 1), "Capital", "City 2", "City 3");
+            state.setId(i + 1);
+            states.add(state);
+        }
+        return new StateCatalog(states);
+    }
+
+    private static double[] uniform(int count) {
+        double[] weights = new double[count];
+        Arrays.fill(weights, 1.0);
+        return weights;
+    }
+
+    @Test
+    public void sample_returnsDistinctIdsFromCandidates() {
+        WeightedQuestionSampler sampler = new WeightedQuestionSampler(ids(50), uniform(50), new Random(42));
+        for (int round = 0; round < 200; round++) {
+            long[] sample = sampler.sample(6);
+            assertEquals(6, sample.length);
+            Set<Long> seen = new HashSet<>();
+            for (long id : sample) {
+                assertTrue(id >= 1 && id <= 50);
+                assertTrue("duplicate id " + id, seen.add(id));
+            }
+        }
+        assertEquals(50.0, sampler.getTotalWeight(), 1e-9);
+    }
+
+    @Test
+    public void sample_neverDrawsZeroWeight() {
+        double[] weights = uniform(10);
+        weights[3] = 0;
+        weights[7] = 0;
+        WeightedQuestionSampler sampler = new WeightedQuestionSampler(ids(10), weights, new Random(3));
+        for (int round = 0; round < 500; round++) {
+            for (long id : sampler.sample(6)) {
+                assertNotEquals(4, id);
+                assertNotEquals(8, id);
+            }
+        }
+        // Only eight candidates can be drawn
+        assertEquals(8, sampler.sample(10).length);
+    }
+
+    @Test
+    public void sample_followsWeights() {
+        double[] weights = {1, 2, 3, 4};
+        WeightedQuestionSampler sampler = new WeightedQuestionSampler(ids(4), weights, new Random(11));
+        int[] counts = new int[4];
+        int draws = 100_000;
+        for (int i = 0; i < draws; i++) {
+            counts[(int) sampler.sample(1)[0] - 1]++;
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(weights[i] / 10, counts[i] / (double) draws, 0.01);
+        }
+    }
+
+    @Test
+    public void setWeight_changesDrawsWithoutRebuild() {
+        WeightedQuestionSampler sampler = new WeightedQuestionSampler(ids(1000), uniform(1000), new Random(5));
+        for (int i = 0; i < 1000; i++) {
+            sampler.setWeight(i, i == 123 ? 1.0 : 0.0);
+        }
+        assertArrayEquals(new long[]{124}, sampler.sample(6));
+        assertEquals(1.0, sampler.getTotalWeight(), 1e-9);
+
+        sampler.setWeight(500, 2.5);
+        assertEquals(3.5, sampler.getTotalWeight(), 1e-9);
+        assertEquals(2, sampler.sample(6).length);
+    }
+
+    @Test
+    public void setWeight_rejectsNegative() {
+        WeightedQuestionSampler sampler = new WeightedQuestionSampler(ids(3), uniform(3), new Random());
+        try {
+            sampler.setWeight(1, -1);
+            fail("negative weight accepted");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(3.0, sampler.getTotalWeight(), 1e-9);
+        }
+    }
+
+    @Test
+    public void adaptiveWeight_favoursErrorsAndDropsWhileCooling() {
+        double unasked = AdaptiveSampler.weightOf(0, 0, false);
+        double weak = AdaptiveSampler.weightOf(4, 1, false);
+        double strong = AdaptiveSampler.weightOf(4, 4, false);
+        assertEquals(0.5, unasked, 1e-9);
+        assertTrue(weak > unasked && unasked > strong);
+        assertEquals(weak * AdaptiveSampler.COOLDOWN_FACTOR, AdaptiveSampler.weightOf(4, 1, true), 1e-9);
+    }
+
+    @Test
+    public void adaptiveSampler_recentlyAskedStateIsWeightedDown() {
+        List<StateAccuracy> stats = Arrays.asList(
+                new StateAccuracy(1, "State 1", 2, 1, NOW - 60_000),
+                new StateAccuracy(2, "State 2", 2, 1, NOW - AdaptiveSampler.COOLDOWN_MILLIS));
+        AdaptiveSampler sampler = new AdaptiveSampler(catalog(2), stats, NOW, new Random(3));
+        assertEquals(AdaptiveSampler.weightOf(2, 1, true), sampler.getWeight(1), 1e-9);
+        assertEquals(AdaptiveSampler.weightOf(2, 1, false), sampler.getWeight(2), 1e-9);
+
+        int recentDraws = 0;
+        for (int round = 0; round < 1000; round++) {
+            if (sampler.sample(1, NOW)[0] == 1) recentDraws++;
+        }
+        assertTrue("recent state drawn " + recentDraws + " times", recentDraws < 350);
+    }
+
+    @Test
+    public void adaptiveSampler_releasesCooldownAfterWindow() {
+        AdaptiveSampler sampler = new AdaptiveSampler(catalog(3), Collections.<StateAccuracy>emptyList(),
+                NOW, new Random(5));
+        sampler.recordAnswer(2, false, NOW);
+        assertEquals(AdaptiveSampler.weightOf(1, 0, true), sampler.getWeight(2), 1e-9);
+
+        sampler.sample(1, NOW + AdaptiveSampler.COOLDOWN_MILLIS - 1);
+        assertEquals(AdaptiveSampler.weightOf(1, 0, true), sampler.getWeight(2), 1e-9);
+        sampler.sample(1, NOW + AdaptiveSampler.COOLDOWN_MILLIS);
+        assertEquals(AdaptiveSampler.weightOf(1, 0, false), sampler.getWeight(2), 1e-9);
+    }
+
+    @Test
+    public void adaptiveSampler_skipsStaleEntryAfterReask() {
+        AdaptiveSampler sampler = new AdaptiveSampler(catalog(3), Collections.<StateAccuracy>emptyList(),
+                NOW, new Random(7));
+        long reaskedAt = NOW + 10 * 60_000;
+        sampler.recordAnswer(1, true, NOW);
+        sampler.recordAnswer(1, true, reaskedAt);
+
+        // The first answer's cooldown has passed, but the second one still holds
+        sampler.sample(1, NOW + AdaptiveSampler.COOLDOWN_MILLIS);
+        assertEquals(AdaptiveSampler.weightOf(2, 2, true), sampler.getWeight(1), 1e-9);
+        sampler.sample(1, reaskedAt + AdaptiveSampler.COOLDOWN_MILLIS);
+        assertEquals(AdaptiveSampler.weightOf(2, 2, false), sampler.getWeight(1), 1e-9);
+    }
+
+    @Test
+    public void adaptiveSampler_cooldownQueueStaysBoundedWithoutSampling() {
+        AdaptiveSampler sampler = new AdaptiveSampler(catalog(3), Collections.<StateAccuracy>emptyList(),
+                NOW, new Random(9));
+        for (int i = 0; i < 1000; i++) {
+            sampler.recordAnswer(1 + i % 3, i % 2 == 0, NOW + i);
+            assertTrue(sampler.getCoolingCount() <= 2 * 3);
+        }
+        // Answers outside the window are released on the record path as well
+        sampler.recordAnswer(1, true, NOW + 1000 + AdaptiveSampler.COOLDOWN_MILLIS);
+        assertEquals(1, sampler.getCoolingCount());
+    }
+}
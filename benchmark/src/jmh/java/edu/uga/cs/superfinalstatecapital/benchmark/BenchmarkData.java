@@ -0,0 +1,109 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures for the data layer benchmarks: synthetic datasets built from
+ * the bundled states CSV, and the app's SQLite schema.
+ */
+final class BenchmarkData {
+
+    private static final String STATES_RESOURCE = "/state_capitals.csv";
+
+    // The app's schema as exported to app/schemas, checked against StateQuizDBHelper by its tests
+    private static final String SCHEMA_RESOURCE = "/statequiz.sql";
+
+    // Start of the synthetic quiz history, 2000-01-01 in epoch millis
+    static final long START_MILLIS = 946684800000L;
+
+    static final int QUESTIONS_PER_QUIZ = 6;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Reads the data rows of the bundled states CSV, without the header
+     */
+    static List<String> stateLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = BenchmarkData.class.getResourceAsStream(STATES_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing " + STATES_RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            String line;
+            while (header != null && (line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the statements of the exported app schema, without comments
+     */
+    static List<String> schema() throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (InputStream in = BenchmarkData.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing " + SCHEMA_RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().startsWith("--")) {
+                    text.append(line).append('\n');
+                }
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String statement : text.toString().split(";")) {
+            if (!statement.trim().isEmpty()) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Builds CSV text with a header and the given number of state rows.
+     * The real states repeat, with a copy number appended to the name after the first pass.
+     */
+    static String statesCsv(int rows) throws IOException {
+        List<String> lines = stateLines();
+        StringBuilder csv = new StringBuilder(rows * 64);
+        csv.append("State,Capital city,Second city,Third city,Statehood,Capital since,Capital rank\r\n");
+        for (int i = 0; i < rows; i++) {
+            String line = lines.get(i % lines.size());
+            int copy = i / lines.size();
+            if (copy == 0) {
+                csv.append(line);
+            } else {
+                int comma = line.indexOf(',');
+                csv.append(line, 0, comma).append(' ').append(copy).append(line, comma, line.length());
+            }
+            csv.append("\r\n");
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Returns the IDs 1..count, as loaded from the states table
+     */
+    static long[] sequentialIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,79 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import edu.uga.cs.superfinalstatecapital.CSVTokenizer;
+import edu.uga.cs.superfinalstatecapital.State;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses states CSV of increasing size the way CSVReader does: the header is
+ * skipped and only the first four columns of each row become a State.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class CsvParseBenchmark {
+
+    // Columns materialized per row, as in CSVReader
+    private static final int STATE_COLUMNS = 4;
+
+    @Param({"50", "5000", "500000"})
+    public int rows;
+
+    private String csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        csv = BenchmarkData.statesCsv(rows);
+    }
+
+    /**
+     * Tokenizes every field without keeping any of them
+     */
+    @Benchmark
+    public int tokenize() throws IOException {
+        final int[] fields = new int[1];
+        new CSVTokenizer().tokenize(new StringReader(csv), new CSVTokenizer.FieldHandler() {
+            @Override
+            public void onField(int row, int column, CharSequence value) {
+                fields[0] += value.length();
+            }
+
+            @Override
+            public void onRecordEnd(int row, int columnCount) {
+            }
+        });
+        return fields[0];
+    }
+
+    /**
+     * Tokenizes and builds a State per data row
+     */
+    @Benchmark
+    public List<State> parseStates() throws IOException {
+        final List<State> states = new ArrayList<>(rows);
+        final String[] fields = new String[STATE_COLUMNS];
+        new CSVTokenizer().tokenize(new StringReader(csv), new CSVTokenizer.FieldHandler() {
+            @Override
+            public void onField(int row, int column, CharSequence value) {
+                if (row > 0 && column < STATE_COLUMNS) {
+                    fields[column] = value.toString().trim();
+                }
+            }
+
+            @Override
+            public void onRecordEnd(int row, int columnCount) {
+                if (row > 0 && columnCount >= STATE_COLUMNS) {
+                    states.add(new State(fields[0], fields[1], fields[2], fields[3]));
+                }
+            }
+        });
+        return states;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import edu.uga.cs.superfinalstatecapital.QuestionSampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Draws quiz questions the way StateCatalog.sampleStateIds does, over catalogs
+ * of increasing size.
+ */
+@State(Scope.Benchmark)
+public class QuestionSamplerBenchmark {
+
+    @Param({"50", "5000", "500000"})
+    public int rows;
+
+    private long[] stateIds;
+    private QuestionSampler sampler;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        stateIds = BenchmarkData.sequentialIds(rows);
+        random = new Random(42);
+        sampler = new QuestionSampler(stateIds, random);
+    }
+
+    /**
+     * Builds a sampler from the catalog IDs and draws one quiz, as the first quiz
+     * after each catalog load does
+     */
+    @Benchmark
+    public long[] newQuiz() {
+        return new QuestionSampler(stateIds, random).sample(BenchmarkData.QUESTIONS_PER_QUIZ);
+    }
+
+    /**
+     * Draws one quiz from an existing sampler, as every later quiz does
+     */
+    @Benchmark
+    public long[] sampleOnly() {
+        return sampler.sample(BenchmarkData.QUESTIONS_PER_QUIZ);
+    }
+}
@@ -0,0 +1,299 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import edu.uga.cs.superfinalstatecapital.QuizResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the QuizData queries through the SQLite JDBC driver against an
+ * in-memory database holding a quiz history of increasing size, with six
+ * answered questions per quiz.
+ */
+@State(Scope.Benchmark)
+public class QuizQueryBenchmark {
+
+    // Same page size as ResultsFragment
+    private static final int PAGE_SIZE = 30;
+    private static final int STATE_COUNT = 50;
+
+    // Same queries QuizData issues
+    private static final String HISTORY_ORDER = " ORDER BY timestamp DESC, _id DESC";
+    private static final String ALL_RESULTS_QUERY = "SELECT * FROM quizzes" + HISTORY_ORDER;
+    private static final String FIRST_PAGE_QUERY = ALL_RESULTS_QUERY + " LIMIT ?";
+    private static final String NEXT_PAGE_QUERY = "SELECT * FROM quizzes"
+            + " WHERE timestamp <= ? AND (timestamp < ? OR _id < ?)" + HISTORY_ORDER + " LIMIT ?";
+    private static final String IN_PROGRESS_QUERY = "SELECT * FROM quizzes"
+            + " WHERE questions_answered > 0 AND questions_answered < question_count AND score >= 0"
+            + " ORDER BY timestamp DESC LIMIT 1";
+    private static final String QUIZ_STATES_QUERY = "SELECT DISTINCT s.* FROM states s"
+            + " JOIN quiz_questions q ON s._id = q.state_id"
+            + " WHERE q.quiz_id = ? ORDER BY q._id";
+    private static final String QUIZ_PLAN_QUERY = "SELECT state_id, choice_order FROM quiz_plan"
+            + " WHERE quiz_id = ? ORDER BY position";
+    private static final String STATS_QUERY = "SELECT completed_count, total_score, total_questions"
+            + " FROM quiz_stats";
+
+    // The same aggregates computed from the history, as they were before quiz_stats
+    private static final String STATS_SCAN_QUERY = "SELECT COUNT(*), SUM(score), SUM(question_count)"
+            + " FROM quizzes WHERE questions_answered >= question_count";
+
+    // Per-state accuracy over every stored answer, as StateQuizDBHelper.rebuildStateStats computes it
+    private static final String ACCURACY_SCAN_QUERY = "SELECT state_id, COUNT(*), SUM(answer_choice = 0)"
+            + " FROM quiz_questions GROUP BY state_id";
+
+    @Param({"50", "5000", "500000"})
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement firstPage;
+    private PreparedStatement nextPage;
+    private PreparedStatement allResults;
+    private PreparedStatement inProgress;
+    private PreparedStatement quizStates;
+    private PreparedStatement quizPlan;
+    private PreparedStatement stats;
+    private PreparedStatement statsScan;
+    private PreparedStatement accuracyScan;
+
+    // Quiz in the middle of the history, used as the keyset cursor and join target
+    private QuizResult middle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = ON");
+            for (String sql : BenchmarkData.schema()) {
+                statement.execute(sql);
+            }
+        }
+        populate();
+
+        firstPage = connection.prepareStatement(FIRST_PAGE_QUERY);
+        nextPage = connection.prepareStatement(NEXT_PAGE_QUERY);
+        allResults = connection.prepareStatement(ALL_RESULTS_QUERY);
+        inProgress = connection.prepareStatement(IN_PROGRESS_QUERY);
+        quizStates = connection.prepareStatement(QUIZ_STATES_QUERY);
+        quizPlan = connection.prepareStatement(QUIZ_PLAN_QUERY);
+        stats = connection.prepareStatement(STATS_QUERY);
+        statsScan = connection.prepareStatement(STATS_SCAN_QUERY);
+        accuracyScan = connection.prepareStatement(ACCURACY_SCAN_QUERY);
+
+        long middleId = rows / 2 + 1;
+        middle = new QuizResult(middleId, timestampOf(middleId), 0, BenchmarkData.QUESTIONS_PER_QUIZ);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * First page of the results screen
+     */
+    @Benchmark
+    public List<QuizResult> historyFirstPage() throws SQLException {
+        firstPage.setInt(1, PAGE_SIZE);
+        return readResults(firstPage);
+    }
+
+    /**
+     * A page from the middle of the history, via the keyset cursor
+     */
+    @Benchmark
+    public List<QuizResult> historyMiddlePage() throws SQLException {
+        nextPage.setLong(1, middle.getTimestamp());
+        nextPage.setLong(2, middle.getTimestamp());
+        nextPage.setLong(3, middle.getId());
+        nextPage.setInt(4, PAGE_SIZE);
+        return readResults(nextPage);
+    }
+
+    /**
+     * The whole history, as getPastQuizResults() returns it
+     */
+    @Benchmark
+    public List<QuizResult> historyAll() throws SQLException {
+        return readResults(allResults);
+    }
+
+    /**
+     * The interrupted quiz lookup run when the quiz screen opens
+     */
+    @Benchmark
+    public long quizInProgress() throws SQLException {
+        try (ResultSet resultSet = inProgress.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong("_id") : -1;
+        }
+    }
+
+    /**
+     * The states of one quiz from its answers, as used to resume quizzes without a plan
+     */
+    @Benchmark
+    public int quizStates() throws SQLException {
+        quizStates.setLong(1, middle.getId());
+        int count = 0;
+        try (ResultSet resultSet = quizStates.executeQuery()) {
+            while (resultSet.next()) {
+                count += resultSet.getString("name").length();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The plan of one quiz, as now used to resume it: one primary key range read
+     */
+    @Benchmark
+    public long quizPlan() throws SQLException {
+        quizPlan.setLong(1, middle.getId());
+        long sum = 0;
+        try (ResultSet resultSet = quizPlan.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getLong(1) + resultSet.getInt(2);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The results screen header, read from the maintained quiz_stats row
+     */
+    @Benchmark
+    public long quizStats() throws SQLException {
+        return readStats(stats);
+    }
+
+    /**
+     * The same header computed by scanning the quiz history
+     */
+    @Benchmark
+    public long quizStatsScan() throws SQLException {
+        return readStats(statsScan);
+    }
+
+    /**
+     * Answer accuracy per state, aggregated over the whole answers table
+     */
+    @Benchmark
+    public long answerAccuracyScan() throws SQLException {
+        long correct = 0;
+        try (ResultSet resultSet = accuracyScan.executeQuery()) {
+            while (resultSet.next()) {
+                correct += resultSet.getLong(3);
+            }
+        }
+        return correct;
+    }
+
+    private static long readStats(PreparedStatement query) throws SQLException {
+        try (ResultSet resultSet = query.executeQuery()) {
+            return resultSet.next()
+                    ? resultSet.getLong(1) + resultSet.getLong(2) + resultSet.getLong(3) : -1;
+        }
+    }
+
+    /**
+     * Builds QuizResult objects from a query, as queryQuizResults does
+     */
+    private List<QuizResult> readResults(PreparedStatement query) throws SQLException {
+        List<QuizResult> results = new ArrayList<>();
+        try (ResultSet resultSet = query.executeQuery()) {
+            int idIndex = resultSet.findColumn("_id");
+            int timestampIndex = resultSet.findColumn("timestamp");
+            int scoreIndex = resultSet.findColumn("score");
+            int questionCountIndex = resultSet.findColumn("question_count");
+            while (resultSet.next()) {
+                results.add(new QuizResult(resultSet.getLong(idIndex), resultSet.getLong(timestampIndex),
+                        resultSet.getInt(scoreIndex), resultSet.getInt(questionCountIndex)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Fills the database with states, quizzes and their answered questions in one transaction
+     */
+    private void populate() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement state = connection.prepareStatement(
+                     "INSERT INTO states (name, capital, city2, city3) VALUES (?, ?, ?, ?)");
+             PreparedStatement quiz = connection.prepareStatement(
+                     "INSERT INTO quizzes (timestamp, score, questions_answered, question_count)"
+                             + " VALUES (?, ?, ?, ?)");
+             PreparedStatement question = connection.prepareStatement(
+                     "INSERT INTO quiz_questions (quiz_id, state_id, answer_choice) VALUES (?, ?, ?)");
+             PreparedStatement plan = connection.prepareStatement(
+                     "INSERT INTO quiz_plan (quiz_id, position, state_id, choice_order) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= STATE_COUNT; i++) {
+                state.setString(1, "State " + i);
+                state.setString(2, "Capital " + i);
+                state.setString(3, "City " + i);
+                state.setString(4, "Town " + i);
+                state.executeUpdate();
+            }
+            for (int i = 1; i <= rows; i++) {
+                // Every 1000th quiz was interrupted halfway
+                int answered = i % 1000 == 0 ? 3 : BenchmarkData.QUESTIONS_PER_QUIZ;
+                quiz.setLong(1, timestampOf(i));
+                quiz.setInt(2, i % (BenchmarkData.QUESTIONS_PER_QUIZ + 1));
+                quiz.setInt(3, answered);
+                quiz.setInt(4, BenchmarkData.QUESTIONS_PER_QUIZ);
+                quiz.addBatch();
+                for (int q = 0; q < BenchmarkData.QUESTIONS_PER_QUIZ; q++) {
+                    long stateId = (i * BenchmarkData.QUESTIONS_PER_QUIZ + q) % STATE_COUNT + 1;
+                    plan.setLong(1, i);
+                    plan.setInt(2, q);
+                    plan.setLong(3, stateId);
+                    plan.setInt(4, 21); // Choices in natural order, as QuizPlan encodes them
+                    plan.addBatch();
+                    if (q < answered) {
+                        question.setLong(1, i);
+                        question.setLong(2, stateId);
+                        question.setInt(3, q % 3);
+                        question.addBatch();
+                    }
+                }
+                if (i % 1000 == 0) {
+                    quiz.executeBatch();
+                    question.executeBatch();
+                    plan.executeBatch();
+                }
+            }
+            quiz.executeBatch();
+            question.executeBatch();
+            plan.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO quiz_stats SELECT 1, COUNT(*), SUM(score), SUM(question_count),"
+                    + " 0, 0, 0, MIN(timestamp), MAX(timestamp) FROM quizzes"
+                    + " WHERE questions_answered >= question_count");
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Start time of the quiz with the given ID, one minute apart
+     */
+    private static long timestampOf(long quizId) {
+        return BenchmarkData.START_MILLIS + quizId * 60_000L;
+    }
+}
@@ -0,0 +1,76 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import edu.uga.cs.superfinalstatecapital.QuizResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures QuizResult list construction apart from SQLite: building a list
+ * from column values, and appending one page to a loaded list as
+ * ResultsRecyclerAdapter.appendQuizResults does.
+ */
+@State(Scope.Benchmark)
+public class QuizResultListBenchmark {
+
+    // Same page size as ResultsFragment
+    private static final int PAGE_SIZE = 30;
+
+    @Param({"50", "5000", "500000"})
+    public int rows;
+
+    // Column values as read from the cursor
+    private long[] ids;
+    private long[] timestamps;
+    private int[] scores;
+
+    private List<QuizResult> loaded;
+    private List<QuizResult> page;
+
+    @Setup
+    public void setUp() {
+        ids = new long[rows];
+        timestamps = new long[rows];
+        scores = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = rows - i;
+            timestamps[i] = BenchmarkData.START_MILLIS + (rows - i) * 60_000L;
+            scores[i] = i % (BenchmarkData.QUESTIONS_PER_QUIZ + 1);
+        }
+        loaded = build(rows);
+        page = build(PAGE_SIZE);
+    }
+
+    /**
+     * Builds the full list of results
+     */
+    @Benchmark
+    public List<QuizResult> buildList() {
+        return build(rows);
+    }
+
+    /**
+     * Copies the loaded list and appends one page, as each page load does
+     */
+    @Benchmark
+    public List<QuizResult> appendPage() {
+        List<QuizResult> results = new ArrayList<>(loaded.size() + page.size());
+        results.addAll(loaded);
+        results.addAll(page);
+        return results;
+    }
+
+    private List<QuizResult> build(int count) {
+        List<QuizResult> results = new ArrayList<>();
+        for (int i = 0; i < count && i < rows; i++) {
+            results.add(new QuizResult(ids[i], timestamps[i], scores[i], BenchmarkData.QUESTIONS_PER_QUIZ));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,38 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import edu.uga.cs.superfinalstatecapital.ScoreLabels;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the bind-time cost of a result row's score label: formatting it
+ * with String.format, as the adapter once did, against the ScoreLabels cache.
+ * Each invocation labels the next row of a simulated fling.
+ */
+@State(Scope.Thread)
+public class ScoreLabelsBenchmark {
+
+    private ScoreLabels labels;
+    private int row;
+
+    @Setup
+    public void setUp() {
+        labels = new ScoreLabels();
+        row = 0;
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        int score = row++ % (BenchmarkData.QUESTIONS_PER_QUIZ + 1);
+        return String.format("Score: %d/%d", score, BenchmarkData.QUESTIONS_PER_QUIZ);
+    }
+
+    @Benchmark
+    public String cachedLabel() {
+        int score = row++ % (BenchmarkData.QUESTIONS_PER_QUIZ + 1);
+        return labels.get(score, BenchmarkData.QUESTIONS_PER_QUIZ);
+    }
+}
@@ -0,0 +1,65 @@
+package edu.uga.cs.superfinalstatecapital.benchmark;
+
+import edu.uga.cs.superfinalstatecapital.WeightedQuestionSampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Draws adaptive quizzes the way AdaptiveSampler does, over catalogs of
+ * increasing size, and reweights one state per answer.
+ */
+@State(Scope.Benchmark)
+public class WeightedQuestionSamplerBenchmark {
+
+    @Param({"50", "5000", "500000"})
+    public int rows;
+
+    private long[] stateIds;
+    private double[] weights;
+    private WeightedQuestionSampler sampler;
+    private Random random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        stateIds = BenchmarkData.sequentialIds(rows);
+        random = new Random(42);
+        weights = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            weights[i] = 0.05 + random.nextDouble();
+        }
+        sampler = new WeightedQuestionSampler(stateIds, weights, random);
+    }
+
+    /**
+     * Builds a sampler from the catalog weights, as the first adaptive quiz does
+     */
+    @Benchmark
+    public WeightedQuestionSampler build() {
+        return new WeightedQuestionSampler(stateIds, weights, random);
+    }
+
+    /**
+     * Draws one quiz from an existing sampler
+     */
+    @Benchmark
+    public long[] sampleOnly() {
+        return sampler.sample(BenchmarkData.QUESTIONS_PER_QUIZ);
+    }
+
+    /**
+     * Reweights one state, as each recorded answer does
+     */
+    @Benchmark
+    public double answerUpdate() {
+        int index = next++ % rows;
+        sampler.setWeight(index, weights[index]);
+        return sampler.getTotalWeight();
+    }
+}
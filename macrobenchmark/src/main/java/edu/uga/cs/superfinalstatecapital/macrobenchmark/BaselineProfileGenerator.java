@@ -0,0 +1,42 @@
+package edu.uga.cs.superfinalstatecapital.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Generates the Baseline Profile for :app by walking the critical user
+ * journey: startup, a full quiz, and scrolling the results.
+ * Run through ./gradlew :app:generateBaselineProfile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(QuizFlows.PACKAGE_NAME, scope -> {
+            scope.pressHome();
+            scope.startActivityAndWait();
+
+            UiDevice device = scope.getDevice();
+            QuizFlows.waitForHome(device);
+            QuizFlows.startQuiz(device);
+            QuizFlows.answerQuiz(device);
+            device.findObject(By.res(QuizFlows.PACKAGE_NAME, "homeButton")).click();
+            QuizFlows.waitForHome(device);
+            QuizFlows.openResults(device);
+            QuizFlows.flingResults(device);
+            return Unit.INSTANCE;
+        });
+    }
+}
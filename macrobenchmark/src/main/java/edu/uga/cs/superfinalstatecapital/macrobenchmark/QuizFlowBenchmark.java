@@ -0,0 +1,68 @@
+package edu.uga.cs.superfinalstatecapital.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures frame timing of the start-quiz transition into QuizFragment and of
+ * flinging through a long list in ResultsFragment.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizFlowBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void startQuizTransition() {
+        benchmarkRule.measureRepeated(
+                QuizFlows.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    QuizFlows.waitForHome(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    QuizFlows.startQuiz(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void resultsScroll() {
+        benchmarkRule.measureRepeated(
+                QuizFlows.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    scope.startActivityAndWait();
+                    QuizFlows.ensureHistory(scope);
+                    QuizFlows.openResults(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    QuizFlows.flingResults(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,110 @@
+package edu.uga.cs.superfinalstatecapital.macrobenchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * UI Automator steps through the app shared by the benchmarks and the
+ * Baseline Profile generator.
+ */
+final class QuizFlows {
+
+    static final String PACKAGE_NAME = "edu.uga.cs.superfinalstatecapital";
+
+    private static final long TIMEOUT_MS = 5000;
+    private static final long DIALOG_TIMEOUT_MS = 1000;
+
+    // Upper bound on questions answered per quiz, in case the quiz never completes
+    private static final int MAX_QUESTIONS = 50;
+
+    // Quizzes taken once per test process so the results list can scroll
+    private static final int HISTORY_QUIZZES = 30;
+    private static boolean historySeeded;
+
+    private QuizFlows() {
+    }
+
+    /**
+     * Waits until the main screen has loaded the states and enabled quiz start
+     */
+    static void waitForHome(UiDevice device) {
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "buttonStartQuiz").enabled(true)), TIMEOUT_MS);
+    }
+
+    /**
+     * Starts a quiz from the main screen and waits for the first question.
+     * An interrupted quiz is discarded rather than resumed.
+     */
+    static void startQuiz(UiDevice device) {
+        device.findObject(By.res(PACKAGE_NAME, "buttonStartQuiz")).click();
+        UiObject2 startNew = device.wait(Until.findObject(By.text("Start New")), DIALOG_TIMEOUT_MS);
+        if (startNew != null) {
+            startNew.click();
+        }
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "choice1")), TIMEOUT_MS);
+    }
+
+    /**
+     * Answers every question with the first choice until the quiz result is shown
+     */
+    static void answerQuiz(UiDevice device) {
+        for (int i = 0; i < MAX_QUESTIONS; i++) {
+            if (device.hasObject(By.res(PACKAGE_NAME, "currentScoreText"))) {
+                return;
+            }
+            UiObject2 choice = device.wait(Until.findObject(By.res(PACKAGE_NAME, "choice1")), TIMEOUT_MS);
+            if (choice == null) {
+                break;
+            }
+            choice.click();
+            device.findObject(By.res(PACKAGE_NAME, "nextButton")).click();
+            device.waitForIdle();
+        }
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "currentScoreText")), TIMEOUT_MS);
+    }
+
+    /**
+     * Opens the results screen from the main screen
+     */
+    static void openResults(UiDevice device) {
+        device.findObject(By.res(PACKAGE_NAME, "buttonViewResults")).click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "recyclerView")), TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    /**
+     * Flings the results list to the bottom and back to the top
+     */
+    static void flingResults(UiDevice device) {
+        UiObject2 list = device.findObject(By.res(PACKAGE_NAME, "recyclerView"));
+        // Keep the gesture off the system navigation areas
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    /**
+     * Takes enough quizzes for the results list to scroll, once per test process.
+     * Leaves the app on the main screen.
+     */
+    static void ensureHistory(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        waitForHome(device);
+        if (historySeeded) {
+            return;
+        }
+        for (int i = 0; i < HISTORY_QUIZZES; i++) {
+            startQuiz(device);
+            answerQuiz(device);
+            device.findObject(By.res(PACKAGE_NAME, "homeButton")).click();
+            waitForHome(device);
+        }
+        historySeeded = true;
+    }
+}